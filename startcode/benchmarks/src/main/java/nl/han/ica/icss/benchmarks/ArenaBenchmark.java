@@ -0,0 +1,102 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.arena.ArenaAST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversal and generation speed of the object tree against the arena, and the cost of
+ * converting between them. Run {@link Footprint} for the heap size of both representations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArenaBenchmark {
+    @Param({"synthetic-1000", "synthetic-10000"})
+    public String source;
+
+    private AST ast;
+    private ArenaAST arena;
+    private AST evaluated;
+    private ArenaAST evaluatedArena;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ast = StageBenchmark.buildAst(StageBenchmark.parse(Sources.load(source)));
+        arena = ArenaAST.from(ast);
+
+        evaluated = StageBenchmark.buildAst(StageBenchmark.parse(Sources.load(source)));
+        new Checker().check(evaluated);
+        new Evaluator().apply(evaluated);
+        evaluatedArena = ArenaAST.from(evaluated);
+    }
+
+    @Benchmark
+    public int walkObjectTree() {
+        return countDeclarations(ast.root);
+    }
+
+    @Benchmark
+    public int walkArena() {
+        return countDeclarations(arena, 0);
+    }
+
+    /**
+     * Nodes are numbered in pre-order, so a pass over all of them needs no tree walk.
+     */
+    @Benchmark
+    public int scanArena() {
+        int count = 0;
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.kind(node) == NodeKind.DECLARATION) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ArenaAST toArena() {
+        return ArenaAST.from(ast);
+    }
+
+    @Benchmark
+    public AST toObjectTree() {
+        return arena.toAST();
+    }
+
+    @Benchmark
+    public String generateObjectTree() {
+        return new Generator().generate(evaluated);
+    }
+
+    @Benchmark
+    public String generateArena() {
+        return new Generator().generate(evaluatedArena);
+    }
+
+    private static int countDeclarations(ASTNode node) {
+        int count = node instanceof Declaration ? 1 : 0;
+        for (int i = 0; i < node.childCount(); i++) {
+            count += countDeclarations(node.childAt(i));
+        }
+        return count;
+    }
+
+    private static int countDeclarations(ArenaAST arena, int node) {
+        int count = arena.kind(node) == NodeKind.DECLARATION ? 1 : 0;
+        for (int i = 0; i < arena.childCount(node); i++) {
+            count += countDeclarations(arena, arena.childAt(node, i));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to lex, parse and build the AST of a single long calculation. With an
+ * unambiguous grammar the time per term should stay the same as the chain grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculationBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int terms;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("Width := 1px");
+        for (int i = 1; i < terms; i++) {
+            switch (i % 3) {
+                case 0:
+                    builder.append(" + ").append(i).append("px");
+                    break;
+                case 1:
+                    builder.append(" - ").append(i).append("px * 2");
+                    break;
+                default:
+                    builder.append(" + Other");
+            }
+        }
+        source = builder.append(";\n").toString();
+    }
+
+    @Benchmark
+    public AST parse() {
+        return StageBenchmark.buildAst(StageBenchmark.parse(source));
+    }
+}
@@ -0,0 +1,80 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to compile long calculations and deeply nested if clauses. The sizes differ by a
+ * factor 8: if every pass is linear, so is the time, a quadratic pass makes the larger
+ * size take about 64 times as long.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeepTreeBenchmark {
+    @Param({"12500", "100000"})
+    public int size;
+
+    private String calculation;
+    private CompilerService compiler;
+    private AST nestedIfClauses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder source = new StringBuilder("Width := 0px");
+        for (int i = 1; i < size; i++) {
+            source.append(i % 2 == 0 ? " - 1px" : " + 2px");
+        }
+        source.append(";\np {\n  width: Width;\n  height: 10px");
+        for (int i = 1; i < size; i++) {
+            source.append(" + 2px * 1");
+        }
+        calculation = source.append(";\n}\n").toString();
+        compiler = new CompilerService();
+    }
+
+    //Evaluation removes the if clauses, so every invocation gets a fresh tree
+    @Setup(Level.Invocation)
+    public void buildNestedIfClauses() {
+        IfClause ifClause = new IfClause();
+        ifClause.addChild(new VariableReference("Flag"));
+        ifClause.addChild(new Declaration("width").addChild(PixelLiteral.of(1)));
+        for (int i = 1; i < size; i++) {
+            IfClause outer = new IfClause();
+            outer.addChild(new VariableReference("Flag"));
+            outer.addChild(ifClause);
+            outer.addChild(new ElseClause().addChild(new Declaration("width").addChild(PixelLiteral.of(2))));
+            ifClause = outer;
+        }
+
+        Stylesheet stylesheet = new Stylesheet();
+        stylesheet.addChild(new VariableAssignment().addChild(new VariableReference("Flag")).addChild(BoolLiteral.TRUE));
+        stylesheet.addChild(new Stylerule().addChild(new TagSelector("p")).addChild(ifClause));
+        nestedIfClauses = new AST(stylesheet);
+    }
+
+    @Benchmark
+    public CompileResult compileLongCalculation() {
+        return compiler.compile(calculation);
+    }
+
+    @Benchmark
+    public String checkEvaluateAndGenerateNestedIfClauses() {
+        new Checker().check(nestedIfClauses);
+        new Evaluator().apply(nestedIfClauses);
+        return new Generator().generate(nestedIfClauses);
+    }
+}
@@ -0,0 +1,27 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.arena.ArenaAST;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the heap size of the object tree and of the arena for generated stylesheets
+ * of growing size. Everything reachable from the AST is counted, shared literals and
+ * names included.
+ */
+public class Footprint {
+
+    public static void main(String[] args) {
+        String[] sources = args.length > 0 ? args : new String[]{"synthetic-100", "synthetic-1000", "synthetic-10000"};
+
+        System.out.printf("%-18s %10s %14s %14s %8s%n", "source", "nodes", "object tree", "arena", "ratio");
+        for (String source : sources) {
+            AST ast = StageBenchmark.buildAst(StageBenchmark.parse(Sources.load(source)));
+            ArenaAST arena = ArenaAST.from(ast);
+
+            long tree = GraphLayout.parseInstance(ast).totalSize();
+            long flat = GraphLayout.parseInstance(arena).totalSize();
+            System.out.printf("%-18s %10d %14d %14d %7.1fx%n", source, arena.size(), tree, flat, (double) tree / flat);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.workload.WorkloadGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Benchmark inputs: the level files bundled with the tool, or "synthetic-N" for a
+ * stylesheet with N style rules from the {@link WorkloadGenerator}, always with the same seed.
+ */
+final class Sources {
+    static final String SYNTHETIC_PREFIX = "synthetic-";
+    private static final long SEED = 2020;
+
+    private Sources() {
+    }
+
+    static String load(String name) {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            return synthetic(Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length())));
+        }
+        try (InputStream input = Sources.class.getClassLoader().getResourceAsStream(name + ".icss")) {
+            if (input == null) {
+                throw new IllegalArgumentException("No such source: " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String synthetic(int rules) {
+        return new WorkloadGenerator(SEED).rules(rules).generateSource();
+    }
+}
@@ -0,0 +1,130 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.gen.ICSSLexer;
+import nl.han.ica.icss.gen.ICSSParser;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.ASTListener;
+import nl.han.ica.icss.parser.SourceParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every stage of the compiler on its own, and of all stages together.
+ *
+ * Checking and evaluation change the AST they work on, so those benchmarks get a fresh
+ * AST before every invocation. For the smallest inputs the setup then costs about as
+ * much as the measured work; compare those numbers between runs, not between stages.
+ *
+ * lexParseAndBuildAst builds the AST while parsing, without a parse tree; compare it
+ * with lexAndParse plus buildAst, preferably with the gc profiler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+    private static final BaseErrorListener IGNORE_ERRORS = new BaseErrorListener();
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({"level0", "level1", "level2", "level3", "synthetic-100", "synthetic-1000", "synthetic-10000"})
+        public String source;
+
+        String text;
+        ParseTree parseTree;
+        AST transformed;
+        CompilerService compiler;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            text = Sources.load(source);
+            parseTree = parse(text);
+            transformed = buildAst(parseTree);
+            new Checker().check(transformed);
+            new Evaluator().apply(transformed);
+            compiler = new CompilerService();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FreshAst {
+        AST ast;
+
+        @Setup(Level.Invocation)
+        public void setUp(Input input) {
+            ast = buildAst(input.parseTree);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CheckedAst {
+        AST ast;
+
+        @Setup(Level.Invocation)
+        public void setUp(Input input) {
+            ast = buildAst(input.parseTree);
+            new Checker().check(ast);
+        }
+    }
+
+    @Benchmark
+    public ParseTree lexAndParse(Input input) {
+        return parse(input.text);
+    }
+
+    @Benchmark
+    public AST buildAst(Input input) {
+        return buildAst(input.parseTree);
+    }
+
+    @Benchmark
+    public AST lexParseAndBuildAst(Input input) {
+        return new SourceParser().parse(CharStreams.fromString(input.text), IGNORE_ERRORS);
+    }
+
+    @Benchmark
+    public AST check(FreshAst fresh) {
+        new Checker().check(fresh.ast);
+        return fresh.ast;
+    }
+
+    @Benchmark
+    public AST transform(CheckedAst checked) {
+        new Evaluator().apply(checked.ast);
+        return checked.ast;
+    }
+
+    @Benchmark
+    public String generate(Input input) {
+        return new Generator().generate(input.transformed);
+    }
+
+    @Benchmark
+    public CompileResult endToEnd(Input input) {
+        return input.compiler.compile(input.text);
+    }
+
+    static ParseTree parse(String text) {
+        ICSSLexer lexer = new ICSSLexer(CharStreams.fromString(text));
+        ICSSParser parser = new ICSSParser(new CommonTokenStream(lexer));
+        return parser.stylesheet();
+    }
+
+    static AST buildAst(ParseTree parseTree) {
+        ASTListener listener = new ASTListener();
+        new ParseTreeWalker().walk(listener, parseTree);
+        return listener.getAST();
+    }
+}
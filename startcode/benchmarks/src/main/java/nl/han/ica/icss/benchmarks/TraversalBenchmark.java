@@ -0,0 +1,55 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full walk over the AST, once through childCount/childAt and once through
+ * getChildren. Run with the gc profiler: the childAt walk should not allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+    @Param({"level3", "synthetic-1000"})
+    public String source;
+
+    private AST ast;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ast = StageBenchmark.buildAst(StageBenchmark.parse(Sources.load(source)));
+    }
+
+    @Benchmark
+    public int walkChildAt() {
+        return countChildAt(ast.root);
+    }
+
+    @Benchmark
+    public int walkGetChildren() {
+        return countGetChildren(ast.root);
+    }
+
+    private static int countChildAt(ASTNode node) {
+        int count = 1;
+        for (int i = 0; i < node.childCount(); i++) {
+            count += countChildAt(node.childAt(i));
+        }
+        return count;
+    }
+
+    private static int countGetChildren(ASTNode node) {
+        int count = 1;
+        for (ASTNode child : node.getChildren()) {
+            count += countGetChildren(child);
+        }
+        return count;
+    }
+}
@@ -120,7 +120,7 @@ variableReference: CAPITAL_IDENT;
 variableValue
     : TRUE
     | FALSE
-    | value
+    | color
     | calculation
     ;
 
@@ -128,7 +128,7 @@ variableValue
     Variables can be initialized with calculations
     Value := 10px + 1px * 1;
 */
-variableAssignment: CAPITAL_IDENT ASSIGNMENT_OPERATOR (variableValue | variableReference) SEMICOLON;
+variableAssignment: CAPITAL_IDENT ASSIGNMENT_OPERATOR variableValue SEMICOLON;
 
 /*
     Declarations like
@@ -141,107 +141,39 @@ declaration: property COLON declarationValue SEMICOLON;
 */
 declarationValue
     : calculation
-    | variableReference
-    | value
+    | color
     ;
 
-/*
-    Operators to calculate with
-*/
-operator: MUL | PLUS | MIN;
-
 /*
     Properties can only start with a lower case letter
 */
 property: LOWER_IDENT;
 
 /*
-    Standard values
-*/
-value
-    : PIXELSIZE
-    | PERCENTAGE
-    | COLOR
-    ;
-
-/*
-    Calculations for pixels and percentages
-    Scalar can be used for multiplying
+    Colors cannot be calculated with
 */
-calculation: pixelCalculation | percentageCalculation;
+color: COLOR;
 
 /*
-    Calculate pixels
+    Calculations for pixels and percentages, where * takes precedence over + and -.
+    A single value or variable is a calculation without operators.
     Pixel := 10 * 10px + 1 * 1px + 1px * 1 + 10px;
-*/
-pixelCalculation:
-    pixel PLUS pixel
-    | pixel PLUS pixelCalculation
-    | pixelCalculation PLUS pixel
-    | pixelCalculation PLUS pixelCalculation
-
-    | pixel MIN pixel
-    | pixel MIN pixelCalculation
-    | pixelCalculation MIN pixel
-    | pixelCalculation MIN pixelCalculation
-
-    | pixel MUL scalar
-    | scalar MUL pixel
-    | pixelCalculation MUL scalar
-    | scalar MUL pixelCalculation
-
-    | variableReference PLUS pixelCalculation
-    | pixelCalculation PLUS variableReference
-    | pixel PLUS variableReference
-    | variableReference PLUS pixel
-
-    | variableReference MUL pixelCalculation
-    | pixelCalculation MUL variableReference
-    | pixel MUL variableReference
-    | variableReference MUL  pixel
-
-    | variableReference MIN pixelCalculation
-    | pixelCalculation MIN variableReference
-    | pixel MIN variableReference
-    | variableReference MIN pixel
-    ;
-
-/*
-    Calculate percentage
     Percent := 10 * 10% + 10% - 10% * 10;
+
+    Every operator is left associative and each rule has a single alternative per
+    operator, so the parser never has to choose between ways to group a chain.
 */
-percentageCalculation:
-    percent PLUS percent
-    | percent PLUS percentageCalculation
-    | percentageCalculation PLUS percent
-    | percentageCalculation PLUS percentageCalculation
-
-    | percent MIN percent
-    | percent MIN percentageCalculation
-    | percentageCalculation MIN percent
-    | percentageCalculation MIN percentageCalculation
-
-    | percent MUL scalar
-    | scalar MUL percent
-    | percentageCalculation MUL scalar
-    | scalar MUL percentageCalculation
-
-    | variableReference PLUS percentageCalculation
-    | percentageCalculation PLUS variableReference
-    | variableReference PLUS percent
-    | percent PLUS variableReference
-
-    | variableReference MUL percentageCalculation
-    | percentageCalculation MUL variableReference
-    | variableReference MUL percent
-    | percent MUL variableReference
-
-    | variableReference MIN percentageCalculation
-    | percentageCalculation MIN variableReference
-    | variableReference MIN percent
-    | percent MIN variableReference
+calculation: term ((PLUS | MIN) term)*;
+
+term: operand (MUL operand)*;
+
+operand
+    : pixel
+    | percent
+    | scalar
+    | variableReference
     ;
 
-    scalar: SCALAR;
-    pixel: PIXELSIZE;
-    percent: PERCENTAGE;
\ No newline at end of file
+scalar: SCALAR;
+pixel: PIXELSIZE;
+percent: PERCENTAGE;
@@ -0,0 +1,51 @@
+package nl.han.ica.icss;
+
+/**
+ * An error found while compiling a stylesheet. Line and column are only known for
+ * syntax errors; they are -1 otherwise.
+ */
+public class CompileError {
+    private final Stage stage;
+    private final int line;
+    private final int column;
+    private final String message;
+
+    public CompileError(Stage stage, int line, int column, String message) {
+        this.stage = stage;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public CompileError(Stage stage, String message) {
+        this(stage, -1, -1, message);
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        switch (stage) {
+            case PARSE:
+                return line < 0 ? "Syntax error: " + message : "Syntax error at " + line + ":" + column + ": " + message;
+            case CHECK:
+                return "ERROR: " + message;
+            default:
+                return "Internal error: " + message;
+        }
+    }
+}
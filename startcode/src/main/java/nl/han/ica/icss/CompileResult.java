@@ -0,0 +1,52 @@
+package nl.han.ica.icss;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The immutable outcome of compiling one stylesheet with the {@link CompilerService}.
+ */
+public class CompileResult {
+    private final String css;
+    private final List<CompileError> errors;
+    private final Map<Stage, Long> timings;
+
+    public CompileResult(String css, List<CompileError> errors, EnumMap<Stage, Long> timings) {
+        this.css = css;
+        this.errors = Collections.unmodifiableList(errors);
+        this.timings = Collections.unmodifiableMap(new EnumMap<>(timings));
+    }
+
+    /**
+     * @return the generated css, or null if the stylesheet did not compile or the css
+     * was streamed to a channel
+     */
+    public String getCss() {
+        return css;
+    }
+
+    public List<CompileError> getErrors() {
+        return errors;
+    }
+
+    public boolean isSucceeded() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return time spent in the given stage in nanoseconds, 0 if the stage did not run
+     */
+    public long getNanos(Stage stage) {
+        return timings.getOrDefault(stage, 0L);
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : timings.values()) {
+            total += nanos;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,202 @@
+package nl.han.ica.icss;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.checker.SemanticError;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.metrics.CompilerMetrics;
+import nl.han.ica.icss.metrics.CountingByteChannel;
+import nl.han.ica.icss.parallel.RuleParallelism;
+import nl.han.ica.icss.parser.SourceParser;
+import nl.han.ica.icss.parser.SourceStreams;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compiles ICSS to CSS in one call. Unlike {@link Pipeline}, which keeps the state of
+ * an interactive session, the service keeps all state of a compilation on the stack,
+ * so one instance can be shared by any number of threads.
+ */
+public class CompilerService {
+    private final SourceParser parser;
+    private final Executor executor;
+    private final RuleParallelism parallelism;
+
+    public CompilerService() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor executor that runs the asynchronous compilations
+     */
+    public CompilerService(Executor executor) {
+        this(executor, RuleParallelism.SEQUENTIAL);
+    }
+
+    /**
+     * @param executor    executor that runs the asynchronous compilations
+     * @param parallelism how the top-level rules of one stylesheet are checked, evaluated and generated
+     */
+    public CompilerService(Executor executor, RuleParallelism parallelism) {
+        this.parser = new SourceParser();
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the version of the compiler as recorded in the jar manifest, or "development"
+     * when running from the class files
+     */
+    public static String getVersion() {
+        String version = CompilerService.class.getPackage().getImplementationVersion();
+        return version != null ? version : "development";
+    }
+
+    public CompileResult compile(String source) {
+        return compile(CharStreams.fromString(source));
+    }
+
+    /**
+     * Compiles a UTF-8 encoded file. The file is memory mapped rather than read into a String.
+     */
+    public CompileResult compileFile(Path path) throws IOException {
+        return compile(SourceStreams.fromPath(path));
+    }
+
+    /**
+     * Compiles the remaining UTF-8 encoded bytes of the buffer, without changing its position.
+     */
+    public CompileResult compile(ByteBuffer source) {
+        return compile(SourceStreams.fromBuffer(source, null));
+    }
+
+    /**
+     * Compiles the remaining UTF-8 encoded bytes of the buffer and streams the css, encoded
+     * as UTF-8, to the output channel instead of keeping it in the result. The channel is
+     * left open; nothing is written to it if the stylesheet has errors.
+     */
+    public CompileResult compile(ByteBuffer source, WritableByteChannel output) {
+        return compile(SourceStreams.fromBuffer(source, null), output);
+    }
+
+    private CompileResult compile(CharStream source) {
+        return compile(source, null);
+    }
+
+    private CompileResult compile(CharStream source, WritableByteChannel output) {
+        List<CompileError> errors = new ArrayList<>();
+        EnumMap<Stage, Long> timings = new EnumMap<>(Stage.class);
+        String css = null;
+        long bytesGenerated = 0;
+
+        long start = System.nanoTime();
+        AST ast = parse(source, errors);
+        start = record(timings, Stage.PARSE, start);
+
+        if (!errors.isEmpty()) {
+            return finish(new CompileResult(null, errors, timings), 0);
+        }
+        if (CompilerMetrics.isEnabled()) {
+            CompilerMetrics.get().recordNodes(ast);
+        }
+
+        Stage stage = Stage.CHECK;
+        try {
+            Checker checker = new Checker();
+            checker.setParallelism(parallelism);
+            checker.check(ast);
+            for (SemanticError error : ast.getErrors()) {
+                errors.add(new CompileError(Stage.CHECK, error.description));
+            }
+            start = record(timings, stage, start);
+
+            if (errors.isEmpty()) {
+                stage = Stage.TRANSFORM;
+                Evaluator evaluator = new Evaluator();
+                evaluator.setParallelism(parallelism);
+                evaluator.apply(ast);
+                start = record(timings, stage, start);
+
+                stage = Stage.GENERATE;
+                Generator generator = new Generator();
+                generator.setParallelism(parallelism);
+                if (output == null) {
+                    css = generator.generate(ast);
+                    bytesGenerated = CompilerMetrics.isEnabled() ? CompilerMetrics.utf8Length(css) : 0;
+                } else if (CompilerMetrics.isEnabled()) {
+                    CountingByteChannel counter = new CountingByteChannel(output);
+                    generator.generate(ast, counter);
+                    bytesGenerated = counter.getCount();
+                } else {
+                    generator.generate(ast, output);
+                }
+                record(timings, stage, start);
+            }
+        } catch (IOException | RuntimeException e) {
+            errors.add(new CompileError(stage, e.toString()));
+            css = null;
+        }
+        return finish(new CompileResult(css, errors, timings), bytesGenerated);
+    }
+
+    private static CompileResult finish(CompileResult result, long bytesGenerated) {
+        if (CompilerMetrics.isEnabled()) {
+            CompilerMetrics metrics = CompilerMetrics.get();
+            for (Stage stage : Stage.values()) {
+                if (result.getNanos(stage) > 0) {
+                    metrics.recordStage(stage, result.getNanos(stage));
+                }
+            }
+            metrics.recordBytesGenerated(bytesGenerated);
+            metrics.recordCompilation(result.getTotalNanos(), result.getErrors().size());
+        }
+        return result;
+    }
+
+    /**
+     * Compiles the source on the executor of this service.
+     */
+    public CompletableFuture<CompileResult> compileAsync(String source) {
+        return CompletableFuture.supplyAsync(() -> compile(source), executor);
+    }
+
+    private AST parse(CharStream source, List<CompileError> errors) {
+        BaseErrorListener errorListener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add(new CompileError(Stage.PARSE, line, charPositionInLine, msg));
+            }
+        };
+        try {
+            return parser.parse(source, errorListener);
+        } catch (RecognitionException e) {
+            errors.add(new CompileError(Stage.PARSE, e.getMessage()));
+        } catch (ParseCancellationException e) {
+            errors.add(new CompileError(Stage.PARSE, "Parsing cancelled"));
+        }
+        return new AST();
+    }
+
+    private static long record(EnumMap<Stage, Long> timings, Stage stage, long start) {
+        long end = System.nanoTime();
+        timings.put(stage, end - start);
+        return end;
+    }
+}
@@ -3,18 +3,20 @@ package nl.han.ica.icss;
 import nl.han.ica.icss.ast.AST;
 import nl.han.ica.icss.checker.Checker;
 import nl.han.ica.icss.checker.SemanticError;
-import nl.han.ica.icss.gen.ICSSLexer;
-import nl.han.ica.icss.gen.ICSSParser;
 import nl.han.ica.icss.generator.Generator;
-import nl.han.ica.icss.parser.ASTListener;
+import nl.han.ica.icss.metrics.CompilerMetrics;
+import nl.han.ica.icss.parser.SourceParser;
+import nl.han.ica.icss.parser.SourceStreams;
 import nl.han.ica.icss.transforms.Evaluator;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
 import org.antlr.v4.runtime.dfa.DFA;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
@@ -48,29 +50,35 @@ public class Pipeline implements ANTLRErrorListener {
     }
 
     public void parseString(String input) {
+        parse(CharStreams.fromString(input));
+    }
 
-        //Lex (with Antlr's generated lexer)
-        CharStream inputStream = CharStreams.fromString(input);
-        ICSSLexer lexer = new ICSSLexer(inputStream);
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(this);
-        errors.clear();
-        try {
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-            //Parse (with Antlr's generated parser)
-            ICSSParser parser = new ICSSParser(tokens);
-            parser.removeErrorListeners();
-            parser.addErrorListener(this);
+    /**
+     * Parses a UTF-8 encoded file. The file is memory mapped rather than read into a String.
+     */
+    public void parseFile(Path path) throws IOException {
+        parse(SourceStreams.fromPath(path));
+    }
 
-            ParseTree parseTree = parser.stylesheet();
+    /**
+     * Parses UTF-8 encoded input read from the channel until its end.
+     */
+    public void parse(ReadableByteChannel channel) throws IOException {
+        parse(SourceStreams.fromChannel(channel));
+    }
 
-            //Extract AST from the Antlr parse tree
-            ASTListener listener = new ASTListener();
-            ParseTreeWalker walker = new ParseTreeWalker();
-            walker.walk(listener, parseTree);
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the buffer.
+     */
+    public void parse(ByteBuffer buffer) {
+        parse(SourceStreams.fromBuffer(buffer, null));
+    }
 
-            this.ast = listener.getAST();
+    private void parse(CharStream input) {
+        long start = System.nanoTime();
+        errors.clear();
+        try {
+            this.ast = new SourceParser().parse(input, this);
 
         } catch (RecognitionException e) {
             this.ast = new AST();
@@ -82,11 +90,19 @@ public class Pipeline implements ANTLRErrorListener {
         }
         parsed = errors.isEmpty();
         checked = transformed = false;
+
+        if (CompilerMetrics.isEnabled()) {
+            CompilerMetrics metrics = CompilerMetrics.get();
+            metrics.recordStage(Stage.PARSE, System.nanoTime() - start);
+            metrics.recordErrors(errors.size());
+            metrics.recordNodes(ast);
+        }
     }
     public boolean check() {
             if(ast == null)
                 return false;
 
+            long start = System.nanoTime();
            (new Checker()).check(this.ast);
 
             ArrayList<SemanticError> errors = this.ast.getErrors();
@@ -98,6 +114,11 @@ public class Pipeline implements ANTLRErrorListener {
 
             checked = errors.isEmpty();
             transformed = false;
+
+            if (CompilerMetrics.isEnabled()) {
+                CompilerMetrics.get().recordStage(Stage.CHECK, System.nanoTime() - start);
+                CompilerMetrics.get().recordErrors(errors.size());
+            }
             return errors.isEmpty();
     }
 
@@ -109,14 +130,23 @@ public class Pipeline implements ANTLRErrorListener {
         if(ast == null)
             return;
 
+        long start = System.nanoTime();
         (new Evaluator()).apply(ast);
-
+        if (CompilerMetrics.isEnabled()) {
+            CompilerMetrics.get().recordStage(Stage.TRANSFORM, System.nanoTime() - start);
+        }
 
         transformed = errors.isEmpty();
     }
     public String generate() {
+        long start = System.nanoTime();
         Generator generator = new Generator();
-        return generator.generate(ast);
+        String css = generator.generate(ast);
+        if (CompilerMetrics.isEnabled()) {
+            CompilerMetrics.get().recordStage(Stage.GENERATE, System.nanoTime() - start);
+            CompilerMetrics.get().recordBytesGenerated(CompilerMetrics.utf8Length(css));
+        }
+        return css;
     }
 
     //Catch ANTLR errors
@@ -0,0 +1,11 @@
+package nl.han.ica.icss;
+
+/**
+ * The stages a stylesheet passes through on its way from ICSS to CSS.
+ */
+public enum Stage {
+    PARSE,
+    CHECK,
+    TRANSFORM,
+    GENERATE
+}
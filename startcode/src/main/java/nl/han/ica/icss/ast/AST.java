@@ -2,7 +2,9 @@ package nl.han.ica.icss.ast;
 
 import nl.han.ica.icss.checker.SemanticError;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Objects;
 
@@ -10,6 +12,9 @@ public class AST {
 	//The root of the tree
 	public Stylesheet root;
 
+	//Errors of the last check, null if the errors have to be collected from the nodes
+	private ErrorIndex errorIndex;
+
 	public AST() {
 		root = new Stylesheet();
 	}
@@ -18,19 +23,34 @@ public class AST {
 	}
 	public void setRoot(Stylesheet stylesheet) {
 		root = stylesheet;
+		errorIndex = null;
+	}
+	/*
+	 Set by the checker: getErrors() then lists the indexed errors instead of
+	 visiting every node.
+	 */
+	public void setErrorIndex(ErrorIndex errorIndex) {
+		this.errorIndex = errorIndex;
 	}
     public ArrayList<SemanticError> getErrors() {
-	    ArrayList<SemanticError> errors = new ArrayList<>();
-        collectErrors(errors,root);
-        return errors;
-    }
-    private void collectErrors(ArrayList<SemanticError> errors, ASTNode node) {
-	    if(node.hasError()) {
-	        errors.add(node.getError());
+	    if(errorIndex != null) {
+	        return errorIndex.getErrors();
         }
-        for(ASTNode child: node.getChildren()) {
-	        collectErrors(errors,child);
+	    ArrayList<SemanticError> errors = new ArrayList<>();
+	    //Pre-order, with an explicit stack so deep trees do not overflow the thread stack
+	    Deque<ASTNode> pending = new ArrayDeque<>();
+	    pending.push(root);
+	    while(!pending.isEmpty()) {
+	        ASTNode node = pending.pop();
+	        if(node.hasError()) {
+	            errors.add(node.getError());
+            }
+            for(int i = node.childCount() - 1; i >= 0; i--) {
+                if(node.childAt(i) != null)
+                    pending.push(node.childAt(i));
+            }
         }
+        return errors;
     }
 	@Override
 	public String toString() {
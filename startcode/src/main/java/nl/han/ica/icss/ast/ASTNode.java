@@ -2,13 +2,21 @@ package nl.han.ica.icss.ast;
 
 import nl.han.ica.icss.checker.SemanticError;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
 
 public class ASTNode {
 
     private SemanticError error = null;
 
+    //Cached structural hash, 0 while it has not been computed
+    private int hash;
+    //The node this node was last added to, null for the root and for shared literals
+    private ASTNode parent;
+
     /*
      This method is used in the GUI to create an appropriate label
      in the tree visualisation.
@@ -17,6 +25,15 @@ public class ASTNode {
         return "ASTNode";
     }
 
+    /*
+     The kind of node, overridden by every concrete node class so check rules can be
+     looked up without instanceof tests. Null for other subclasses: no rule is
+     registered for them.
+     */
+    public NodeKind getKind() {
+        return null;
+    }
+
     /*
      Different AST nodes use different attributes to store their children.
      This method provides a unified interface.
@@ -24,6 +41,23 @@ public class ASTNode {
     public ArrayList<ASTNode> getChildren() {
         return new ArrayList<>();
     }
+    /*
+     Allocation free alternative to getChildren(): a node has childCount() children,
+     childAt(i) returns them in the order of getChildren(). Traversals that run on
+     every compile use these.
+     */
+    public int childCount() {
+        return 0;
+    }
+
+    public ASTNode childAt(int index) {
+        throw childIndexOutOfBounds(index);
+    }
+
+    protected IndexOutOfBoundsException childIndexOutOfBounds(int index) {
+        return new IndexOutOfBoundsException("Index " + index + " out of bounds for " + childCount() + " children");
+    }
+
     /*
     By implementing this method in a subclass you can easily create AST nodes
       incrementally.
@@ -50,34 +84,155 @@ public class ASTNode {
         return error != null;
     }
 
+	/*
+	 The traversals below use explicit stacks instead of recursion, so the depth of a
+	 tree (long calculations, deeply nested if clauses) is only limited by the heap.
+	 */
 	@Override
 	public String toString() {
-		StringBuilder result = new StringBuilder();
-		toString(result);
-		return result.toString();
+		StringBuilder builder = new StringBuilder();
+		//Holds nodes still to print and the closing brackets of the nodes being printed
+		Deque<Object> pending = new ArrayDeque<>();
+		pending.push(this);
+		while(!pending.isEmpty()) {
+			Object next = pending.pop();
+			if(next instanceof ASTNode) {
+				ASTNode node = (ASTNode) next;
+				builder.append("[");
+				builder.append(node.getNodeLabel());
+				builder.append("|");
+				pending.push("]");
+				for(int i = node.childCount() - 1; i >= 0; i--) {
+					pending.push(node.childAt(i));
+				}
+			} else {
+				builder.append(next);
+			}
+		}
+		return builder.toString();
 	}
-	private void toString(StringBuilder builder) {
-		builder.append("[");
-		builder.append(getNodeLabel());	
-		builder.append("|");
-		for(ASTNode child : getChildren()) {
-			child.toString(builder);
-		}	
-		builder.append("]");
+
+	/*
+	 The hash of a node is computed once from its own content and the (cached) hashes
+	 of its children, and kept until the node or a node below it is changed through
+	 addChild or removeChild. Code that assigns children directly must call
+	 invalidateHash() on the node it changed. Children are linked to their parent when
+	 they are added, or else when the parent is hashed, so a change below a node with
+	 a cached hash always reaches it.
+
+	 Every cached hash has the cached hashes of the children below it, so the hashes
+	 to clear after a change are those of the node and its ancestors up to the first
+	 that is not cached.
+	 */
+	@Override
+	public int hashCode() {
+		if(hash == 0) {
+			//Hash the children first, bottom up, so structuralHash() finds their hashes cached
+			Deque<ASTNode> pending = new ArrayDeque<>();
+			pending.push(this);
+			while(!pending.isEmpty()) {
+				ASTNode node = pending.peek();
+				boolean childrenHashed = true;
+				for(int i = 0; i < node.childCount(); i++) {
+					ASTNode child = node.childAt(i);
+					//Links children assigned directly, so invalidateHash() reaches this node
+					if(child != null && !(child instanceof Literal))
+						child.parent = node;
+					if(child != null && child.hash == 0 && child.childCount() > 0) {
+						pending.push(child);
+						childrenHashed = false;
+					}
+				}
+				if(childrenHashed) {
+					pending.pop();
+					int h = node.structuralHash();
+					//0 marks a hash that is not computed
+					node.hash = h == 0 ? 1 : h;
+				}
+			}
+		}
+		return hash;
+	}
+
+	protected int structuralHash() {
+		int h = getClass().getName().hashCode();
+		for(int i = 0; i < childCount(); i++) {
+			h = 31 * h + Objects.hashCode(childAt(i));
+		}
+		return h;
+	}
+
+	/*
+	 Clears the cached hash of the node and of its ancestors.
+	 */
+	public void invalidateHash() {
+		for(ASTNode node = this; node != null && node.hash != 0; node = node.parent) {
+			node.hash = 0;
+		}
+	}
+
+	/*
+	 Called by addChild: the child is now below this node, whose hash and those of its
+	 ancestors are out of date. Literals can be shared by several parents, they never
+	 change, so they do not point back to any of them.
+	 */
+	protected void adopt(ASTNode child) {
+		if(child != null && !(child instanceof Literal))
+			child.parent = this;
+		invalidateHash();
 	}
 
+	public void invalidateHashes() {
+		Deque<ASTNode> pending = new ArrayDeque<>();
+		pending.push(this);
+		while(!pending.isEmpty()) {
+			ASTNode node = pending.pop();
+			node.hash = 0;
+			for(int i = 0; i < node.childCount(); i++) {
+				ASTNode child = node.childAt(i);
+				if(child != null)
+					pending.push(child);
+			}
+		}
+	}
+
+	/*
+	 Compares the trees node by node. Nodes without children are compared with their
+	 own equals, nodes with children by class and children. Subclasses with children
+	 only add a class check, so every pair of nodes is compared once.
+	 */
 	@Override
     public boolean equals(Object o) {
         if(! (o instanceof ASTNode))
             return false;
-        //Compare all children
-        List<ASTNode> thisChildren = this.getChildren();
-        List<ASTNode> otherChildren = ((ASTNode) o).getChildren();
-        if(otherChildren.size() != thisChildren.size())
-            return false;
-        for(int i = 0; i < thisChildren.size(); i++ ) {
-            if(!thisChildren.get(i).equals(otherChildren.get(i))) {
+        //Pairs of nodes still to compare; a list, because a missing child is null
+        List<ASTNode> pending = new ArrayList<>();
+        pending.add(this);
+        pending.add((ASTNode) o);
+        while(!pending.isEmpty()) {
+            ASTNode other = pending.remove(pending.size() - 1);
+            ASTNode node = pending.remove(pending.size() - 1);
+            if(node == other)
+                continue;
+            if(node == null || other == null)
+                return false;
+            //Different hashes mean different trees, no need to compare them
+            if(node.hashCode() != other.hashCode())
+                return false;
+            int count = node.childCount();
+            if(other.childCount() != count)
+                return false;
+            if(count == 0 && node != this) {
+                //A leaf, its equals compares its content
+                if(!node.equals(other))
+                    return false;
+                continue;
+            }
+            if(node != this && node.getClass() != other.getClass())
                 return false;
+            for(int i = count - 1; i >= 0; i--) {
+                pending.add(node.childAt(i));
+                pending.add(other.childAt(i));
             }
         }
         return true;
@@ -1,9 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
-
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /*
@@ -19,7 +16,13 @@ public class Declaration extends ASTNode {
 	public Declaration(String property) {
 		super();
 		this.property = new PropertyName(property);
+		adopt(this.property);
+	}
+	@Override
+	public NodeKind getKind() {
+		return NodeKind.DECLARATION;
 	}
+
 	@Override
 	public String getNodeLabel() {
 	    return "Declaration";
@@ -35,6 +38,23 @@ public class Declaration extends ASTNode {
 		    children.add(expression);
 		return children;
 	}
+	@Override
+	public int childCount() {
+		return (property != null ? 1 : 0) + (expression != null ? 1 : 0);
+	}
+
+	@Override
+	public ASTNode childAt(int index) {
+		if(property != null) {
+			if(index == 0)
+				return property;
+			index--;
+		}
+		if(expression != null && index == 0)
+			return expression;
+		throw childIndexOutOfBounds(index);
+	}
+
 	@Override
 	public ASTNode addChild(ASTNode child) {
 		if(child instanceof PropertyName) {
@@ -42,6 +62,7 @@ public class Declaration extends ASTNode {
 		} else if(child instanceof Expression) {
 			expression = (Expression) child;
 		}
+		adopt(child);
 		return this;
 	}
 
@@ -49,22 +70,12 @@ public class Declaration extends ASTNode {
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
-		if (!super.equals(o)) return false;
-		Declaration that = (Declaration) o;
-		return Objects.equals(property, that.property) &&
-				Objects.equals(expression, that.expression);
+		//The fields are the children, ASTNode.equals compares those
+		return super.equals(o);
 	}
 
 	@Override
-	public int hashCode() {
+	protected int structuralHash() {
 		return Objects.hash(property, expression);
 	}
-
-	public void accept(List<Visitor> visitors) {
-		visitors.forEach(visitor -> visitor.visit(this));
-	}
-
-	public void accept(Visitor visitor) {
-		visitor.visit(this);
-	}
 }
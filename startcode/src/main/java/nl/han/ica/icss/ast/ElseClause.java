@@ -12,6 +12,13 @@ public class ElseClause extends ASTNode{
     public ElseClause(ArrayList<ASTNode> body) {
 
         this.body = body;
+        for (ASTNode child : body)
+            adopt(child);
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.ELSE_CLAUSE;
     }
 
     @Override
@@ -26,24 +33,34 @@ public class ElseClause extends ASTNode{
         return children;
     }
 
+    @Override
+    public int childCount() {
+        return body.size();
+    }
+
+    @Override
+    public ASTNode childAt(int index) {
+        return body.get(index);
+    }
+
     @Override
     public ASTNode addChild(ASTNode child) {
 
         body.add(child);
 
+        adopt(child);
         return this;
     }
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        ElseClause ElseClause = (ElseClause) o;
-        return Objects.equals(body, ElseClause.body);
+        //The fields are the children, ASTNode.equals compares those
+        return super.equals(o);
     }
 
     @Override
-    public int hashCode() {
+    protected int structuralHash() {
         return Objects.hash(body);
     }
 
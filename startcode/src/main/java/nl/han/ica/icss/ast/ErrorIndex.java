@@ -0,0 +1,67 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.checker.SemanticError;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The errors of one compilation, so they can be listed without walking the AST again.
+ * The checker reports errors to the index of the compilation, which sets them on the
+ * nodes and remembers them.
+ *
+ * Literals may be shared by several places and ASTs, so their errors are kept by the
+ * index only, one for every report. They are not found by walking the AST.
+ *
+ * Errors are kept in the order their nodes first got an error. The checker visits the
+ * AST in source order, so that is the order of the errors in the source.
+ */
+public final class ErrorIndex {
+    private final List<ASTNode> nodes = new ArrayList<>();
+    private final List<SemanticError> errors = new ArrayList<>();
+    private final Map<ASTNode, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * Sets the error on the node, unless it is a literal, and indexes it.
+     */
+    public void report(ASTNode node, String description) {
+        if (!(node instanceof Literal)) {
+            node.setError(description);
+        }
+        put(node, new SemanticError(description));
+    }
+
+    /**
+     * Indexes the errors of another index after those of this one, for errors reported
+     * to another index, for example by another thread. The other index is left as it is.
+     */
+    public void addAll(ErrorIndex other) {
+        for (int i = 0; i < other.nodes.size(); i++) {
+            put(other.nodes.get(i), other.errors.get(i));
+        }
+    }
+
+    private void put(ASTNode node, SemanticError error) {
+        Integer position = node instanceof Literal ? null : positions.get(node);
+        if (position == null) {
+            positions.put(node, nodes.size());
+            nodes.add(node);
+            errors.add(error);
+        } else {
+            errors.set(position, error);
+        }
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * @return the last error of every indexed node, in the order the nodes got their first error
+     */
+    public ArrayList<SemanticError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+}
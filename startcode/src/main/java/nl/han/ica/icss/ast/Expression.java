@@ -1,3 +1,12 @@
 package nl.han.ica.icss.ast;
 
-public abstract class Expression extends ASTNode { }
+import nl.han.ica.icss.ast.types.ExpressionType;
+
+public abstract class Expression extends ASTNode {
+
+    /**
+     * @return the type of the value of the expression. Literals know their type, the types
+     * of variable references and operations are inferred by the checker and UNDEFINED before.
+     */
+    public abstract ExpressionType getType();
+}
@@ -1,9 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
-
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 public class IfClause extends ASTNode {
@@ -16,15 +13,22 @@ public class IfClause extends ASTNode {
     public IfClause() { }
 
     public IfClause(Expression conditionalExpression, ArrayList<ASTNode> body) {
-
-        this.conditionalExpression = conditionalExpression;
-        this.body = body;
+        this(conditionalExpression, body, null);
     }
     public IfClause(Expression conditionalExpression, ArrayList<ASTNode> body, ElseClause elseClause) {
 
         this.conditionalExpression = conditionalExpression;
         this.body = body;
         this.elseClause = elseClause;
+        adopt(conditionalExpression);
+        for (ASTNode child : body)
+            adopt(child);
+        adopt(elseClause);
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.IF_CLAUSE;
     }
 
     @Override
@@ -42,6 +46,22 @@ public class IfClause extends ASTNode {
         return children;
     }
 
+    @Override
+    public int childCount() {
+        return 1 + body.size() + (elseClause != null ? 1 : 0);
+    }
+
+    @Override
+    public ASTNode childAt(int index) {
+        if (index == 0)
+            return conditionalExpression;
+        if (index > 0 && index <= body.size())
+            return body.get(index - 1);
+        if (elseClause != null && index == body.size() + 1)
+            return elseClause;
+        throw childIndexOutOfBounds(index);
+    }
+
     @Override
     public ASTNode addChild(ASTNode child) {
         if(child instanceof Expression)
@@ -51,26 +71,19 @@ public class IfClause extends ASTNode {
         else
             body.add(child);
 
+        adopt(child);
         return this;
     }
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        IfClause ifClause = (IfClause) o;
-        if (this.elseClause == null)
-            return Objects.equals(conditionalExpression, ifClause.getConditionalExpression()) &&
-                Objects.equals(body, ifClause.body);
-        else
-            return Objects.equals(conditionalExpression, ifClause.getConditionalExpression()) &&
-                    Objects.equals(body, ifClause.body) &&
-                    Objects.equals(elseClause, ifClause.elseClause);
-
+        //The fields are the children, ASTNode.equals compares those
+        return super.equals(o);
     }
 
     @Override
-    public int hashCode() {
+    protected int structuralHash() {
         return Objects.hash(conditionalExpression, body, elseClause);
     }
 
@@ -81,12 +94,4 @@ public class IfClause extends ASTNode {
     public ElseClause getElseClause() {
         return elseClause;
     }
-
-    public void accept(List<Visitor> visitors) {
-        visitors.forEach(visitor -> visitor.visit(this));
-    }
-
-    public void accept(Visitor visitor) {
-        visitor.visit(this);
-    }
 }
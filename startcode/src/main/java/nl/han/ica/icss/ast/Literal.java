@@ -1,4 +1,35 @@
 package nl.han.ica.icss.ast;
 
+/**
+ * Literals are immutable and the small ones are shared, see the of methods of the
+ * subclasses. A literal can therefore sit at several places in one or more ASTs, and
+ * an error set on a shared literal shows up at all of them. The checker does not set
+ * errors on literals: the {@link ErrorIndex} of the compilation keeps them, in the
+ * order they were reported. Code that sets errors itself should make its literals
+ * with the constructors, which never share them.
+ */
 public abstract class Literal extends Expression {
+
+    /**
+     * Parses the decimal digits text[start, end) without copying them out of the text.
+     *
+     * @throws NumberFormatException if the range is empty, holds anything but digits or does not fit an int
+     */
+    protected static int parseDigits(String text, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("No digits in \"" + text + "\"");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a digit in \"" + text + "\"");
+            }
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Out of range: \"" + text + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 }
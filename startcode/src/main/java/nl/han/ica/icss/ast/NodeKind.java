@@ -0,0 +1,48 @@
+package nl.han.ica.icss.ast;
+
+/**
+ * The node types, one per concrete {@link ASTNode} class, see {@link ASTNode#getKind()}.
+ * Check rules register for kinds of nodes and the arena AST stores the kind of every node.
+ */
+public enum NodeKind {
+    STYLESHEET,
+    STYLERULE,
+    CLASS_SELECTOR,
+    ID_SELECTOR,
+    TAG_SELECTOR,
+    DECLARATION,
+    PROPERTY_NAME,
+    VARIABLE_ASSIGNMENT,
+    VARIABLE_REFERENCE,
+    IF_CLAUSE,
+    ELSE_CLAUSE,
+    ADD,
+    SUBTRACT,
+    MULTIPLY,
+    PIXEL,
+    PERCENTAGE,
+    SCALAR,
+    COLOR,
+    BOOL;
+
+    private static final NodeKind[] VALUES = values();
+
+    public static NodeKind valueOf(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * @return true if the payload of nodes of this kind is an index into the name table
+     */
+    public boolean hasName() {
+        return this == CLASS_SELECTOR || this == ID_SELECTOR || this == TAG_SELECTOR
+                || this == PROPERTY_NAME || this == VARIABLE_REFERENCE;
+    }
+
+    /**
+     * @return true if the payload of nodes of this kind is the value of a literal
+     */
+    public boolean hasValue() {
+        return this == PIXEL || this == PERCENTAGE || this == SCALAR || this == COLOR || this == BOOL;
+    }
+}
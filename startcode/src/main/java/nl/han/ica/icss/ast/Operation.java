@@ -1,6 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.ArrayList;
 
@@ -9,6 +9,17 @@ public abstract class Operation extends Expression {
     public Expression lhs;
     public Expression rhs;
 
+    private ExpressionType type = ExpressionType.UNDEFINED;
+
+    @Override
+    public ExpressionType getType() {
+        return type;
+    }
+
+    public void setType(ExpressionType type) {
+        this.type = type;
+    }
+
     @Override
     public ArrayList<ASTNode> getChildren() {
         ArrayList<ASTNode> children = new ArrayList<>();
@@ -19,6 +30,23 @@ public abstract class Operation extends Expression {
         return children;
     }
 
+    @Override
+    public int childCount() {
+        return (lhs != null ? 1 : 0) + (rhs != null ? 1 : 0);
+    }
+
+    @Override
+    public ASTNode childAt(int index) {
+        if (lhs != null) {
+            if (index == 0)
+                return lhs;
+            index--;
+        }
+        if (rhs != null && index == 0)
+            return rhs;
+        throw childIndexOutOfBounds(index);
+    }
+
     @Override
     public ASTNode addChild(ASTNode child) {
         if (lhs == null) {
@@ -26,10 +54,14 @@ public abstract class Operation extends Expression {
         } else if (rhs == null) {
             rhs = (Expression) child;
         }
+        adopt(child);
         return this;
     }
 
-    public void accept(Visitor visitor) {
-        visitor.visit(this);
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return super.equals(o);
     }
 }
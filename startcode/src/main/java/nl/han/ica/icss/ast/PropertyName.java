@@ -1,5 +1,7 @@
 package nl.han.ica.icss.ast;
 
+import java.util.Objects;
+
 public class PropertyName extends ASTNode {
 
     public String name;
@@ -13,8 +15,26 @@ public class PropertyName extends ASTNode {
         this.name = name;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PROPERTY_NAME;
+    }
+
     @Override
     public String getNodeLabel() {
         return "Property: (" + name + ")";
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertyName that = (PropertyName) o;
+        return Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
 }
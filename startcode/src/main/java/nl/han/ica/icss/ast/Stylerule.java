@@ -1,9 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
-
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 public class Stylerule extends ASTNode {
@@ -18,8 +15,16 @@ public class Stylerule extends ASTNode {
     	this.selectors = new ArrayList<>();
     	this.selectors.add(selector);
     	this.body = body;
+    	adopt(selector);
+    	for (ASTNode child : body)
+    		adopt(child);
     }
 
+	@Override
+	public NodeKind getKind() {
+		return NodeKind.STYLERULE;
+	}
+
     @Override
 	public String getNodeLabel() {
 		return "Stylerule";
@@ -33,6 +38,18 @@ public class Stylerule extends ASTNode {
 		return children;
 	}
 
+	@Override
+	public int childCount() {
+		return selectors.size() + body.size();
+	}
+
+	@Override
+	public ASTNode childAt(int index) {
+		if(index < 0 || index >= childCount())
+			throw childIndexOutOfBounds(index);
+		return index < selectors.size() ? selectors.get(index) : body.get(index - selectors.size());
+	}
+
     @Override
     public ASTNode addChild(ASTNode child) {
 		if(child instanceof Selector)
@@ -40,28 +57,19 @@ public class Stylerule extends ASTNode {
 		else
         	body.add(child);
 
+		adopt(child);
 		return this;
     }
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        Stylerule stylerule = (Stylerule) o;
-        return Objects.equals(selectors, stylerule.selectors) &&
-                Objects.equals(body, stylerule.body);
+        //The fields are the children, ASTNode.equals compares those
+        return super.equals(o);
     }
 
     @Override
-    public int hashCode() {
+    protected int structuralHash() {
         return Objects.hash(selectors, body);
     }
-
-    public void accept(List<Visitor> visitors) {
-        visitors.forEach(visitor -> visitor.visit(this));
-    }
-
-    public void accept(Visitor visitor) {
-        visitor.visit(this);
-    }
 }
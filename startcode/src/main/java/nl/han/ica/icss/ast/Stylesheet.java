@@ -1,9 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
-
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -20,7 +17,14 @@ public class Stylesheet extends ASTNode {
 	}
 	public Stylesheet(ArrayList<ASTNode> body) {
 		this.body = body;
+		for(ASTNode child : body)
+			adopt(child);
+	}
+	@Override
+	public NodeKind getKind() {
+		return NodeKind.STYLESHEET;
 	}
+
 	@Override
 	public String getNodeLabel() {
 		return "Stylesheet";
@@ -30,13 +34,29 @@ public class Stylesheet extends ASTNode {
 		return this.body;
 	}
 	@Override
+	public int childCount() {
+		return body.size();
+	}
+	@Override
+	public ASTNode childAt(int index) {
+		return body.get(index);
+	}
+	@Override
 	public ASTNode addChild(ASTNode child) {
 	    	body.add(child);
+	    	adopt(child);
 	    	return this;
 	}
 	@Override
 	public ASTNode removeChild(ASTNode child) {
-		body.remove(child);
+		//By identity, an equal node elsewhere in the body is another child
+		for (int i = 0; i < body.size(); i++) {
+			if (body.get(i) == child) {
+				body.remove(i);
+				invalidateHash();
+				break;
+			}
+		}
 		return this;
 	}
 
@@ -44,22 +64,13 @@ public class Stylesheet extends ASTNode {
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
-		if (!super.equals(o)) return false;
-		Stylesheet that = (Stylesheet) o;
-		return Objects.equals(body, that.body);
+		//The fields are the children, ASTNode.equals compares those
+		return super.equals(o);
 	}
 
 	@Override
-	public int hashCode() {
+	protected int structuralHash() {
 
 		return Objects.hash(body);
 	}
-
-	public void accept(List<Visitor> visitors) {
-		visitors.forEach(visitor -> visitor.visit(this));
-	}
-
-	public void accept(Visitor visitor) {
-		visitor.visit(this);
-	}
 }
@@ -1,9 +1,6 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
-
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,6 +12,11 @@ public class VariableAssignment extends ASTNode {
 	public VariableReference name;
 	public Expression expression;
 
+	@Override
+	public NodeKind getKind() {
+		return NodeKind.VARIABLE_ASSIGNMENT;
+	}
+
 	@Override
 	public String getNodeLabel() {
 		return "VariableAssignment (" + name.name + ")";
@@ -28,6 +30,7 @@ public class VariableAssignment extends ASTNode {
 			expression = (Expression) child;
 		}
 
+		adopt(child);
 		return this;
 	}
 
@@ -43,25 +46,32 @@ public class VariableAssignment extends ASTNode {
 	}
 
 	@Override
-	public boolean equals(Object o) {
-		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
-		if (!super.equals(o)) return false;
-		VariableAssignment that = (VariableAssignment) o;
-		return Objects.equals(name, that.name) &&
-				Objects.equals(expression, that.expression);
+	public int childCount() {
+		return (name != null ? 1 : 0) + (expression != null ? 1 : 0);
 	}
 
 	@Override
-	public int hashCode() {
-		return Objects.hash(name, expression);
+	public ASTNode childAt(int index) {
+		if(name != null) {
+			if(index == 0)
+				return name;
+			index--;
+		}
+		if(expression != null && index == 0)
+			return expression;
+		throw childIndexOutOfBounds(index);
 	}
 
-	public void accept(List<Visitor> visitors) {
-		visitors.forEach(visitor -> visitor.visit(this));
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		//The fields are the children, ASTNode.equals compares those
+		return super.equals(o);
 	}
 
-	public void accept(Visitor visitor) {
-		visitor.visit(this);
+	@Override
+	protected int structuralHash() {
+		return Objects.hash(name, expression);
 	}
 }
@@ -1,18 +1,48 @@
 package nl.han.ica.icss.ast;
 
-import nl.han.ica.icss.checker.visitor.Visitor;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.Objects;
 
 public class VariableReference extends Expression {
 
+	public static final int UNRESOLVED = -1;
+
 	public String name;
+
+	/*
+	 The address of the variable, set by the ScopeResolver: the number of scopes
+	 between this reference and the scope that assigns the variable, and the slot of
+	 the variable in that scope.
+	 */
+	public int depth = UNRESOLVED;
+	public int slot = UNRESOLVED;
+
+	private ExpressionType type = ExpressionType.UNDEFINED;
 	
 	public VariableReference(String name) {
 		super();
 		this.name = name;
 	}
 
+	public boolean isResolved() {
+		return depth != UNRESOLVED;
+	}
+
+	@Override
+	public ExpressionType getType() {
+		return type;
+	}
+
+	public void setType(ExpressionType type) {
+		this.type = type;
+	}
+
+	@Override
+	public NodeKind getKind() {
+		return NodeKind.VARIABLE_REFERENCE;
+	}
+
 	@Override
 	public String getNodeLabel() {
 		return "VariableReference (" + name + ")";
@@ -32,8 +62,4 @@ public class VariableReference extends Expression {
 
         return Objects.hash(name);
     }
-
-    public void accept(Visitor visitor) {
-        visitor.visit(this);
-    }
 }
@@ -0,0 +1,354 @@
+package nl.han.ica.icss.ast.arena;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.*;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable AST stored in a few primitive arrays instead of one object per node,
+ * for stylesheets too large to keep as an object tree.
+ *
+ * Nodes are numbered in pre-order, the root is node 0. For every node the arena keeps
+ * its {@link NodeKind}, its parent and a payload: the value of a literal, or the index
+ * of a selector, property or variable name in a table that holds every name once. The
+ * children of a node are listed together in one shared array.
+ *
+ * {@link #getRoot()} exposes the arena through the read-only {@link ASTNode} API for
+ * code that only walks the tree. The generator can write the css of an evaluated arena
+ * directly. The checker and evaluator need the typed nodes, and change them, so they
+ * run on a tree made with {@link #toAST()}.
+ */
+public final class ArenaAST {
+    private final int size;
+    private final byte[] kinds;
+    private final int[] parents;
+    private final int[] payloads;
+    private final String[] names;
+
+    //The children of node i are children[childStarts[i]] up to children[childStarts[i + 1]]
+    private final int[] childStarts;
+    private final int[] children;
+
+    //Read-only views of the nodes, made when they are first visited
+    private ArenaNode[] views;
+
+    private ArenaAST(int size, byte[] kinds, int[] parents, int[] payloads, String[] names) {
+        this.size = size;
+        this.kinds = kinds;
+        this.parents = parents;
+        this.payloads = payloads;
+        this.names = names;
+
+        childStarts = new int[size + 1];
+        for (int i = 1; i < size; i++) {
+            childStarts[parents[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            childStarts[i + 1] += childStarts[i];
+        }
+        children = new int[Math.max(size - 1, 0)];
+        int[] next = Arrays.copyOf(childStarts, size);
+        for (int i = 1; i < size; i++) {
+            children[next[parents[i]]++] = i;
+        }
+    }
+
+    /**
+     * Copies an object tree into an arena. Missing children, like the condition of an
+     * unfinished if clause, are left out.
+     */
+    public static ArenaAST from(AST ast) {
+        Builder builder = new Builder();
+        ASTNode[] stack = new ASTNode[16];
+        int[] stackParents = new int[16];
+        int top = 0;
+
+        stack[top] = ast.root;
+        stackParents[top++] = -1;
+        while (top > 0) {
+            top--;
+            ASTNode node = stack[top];
+            NodeKind kind = node.getKind();
+            if (kind == null) {
+                throw new IllegalArgumentException("No node kind for " + node.getClass().getName());
+            }
+            int index = builder.add(kind, payload(node, builder), stackParents[top]);
+
+            if (top + node.childCount() > stack.length) {
+                int capacity = Math.max(stack.length * 2, top + node.childCount());
+                stack = Arrays.copyOf(stack, capacity);
+                stackParents = Arrays.copyOf(stackParents, capacity);
+            }
+            //Pushed in reverse, so the children are numbered in order
+            for (int i = node.childCount() - 1; i >= 0; i--) {
+                ASTNode child = node.childAt(i);
+                if (child != null) {
+                    stack[top] = child;
+                    stackParents[top++] = index;
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int payload(ASTNode node, Builder builder) {
+        if (node instanceof ClassSelector) {
+            return builder.name(((ClassSelector) node).cls);
+        } else if (node instanceof IdSelector) {
+            return builder.name(((IdSelector) node).id);
+        } else if (node instanceof TagSelector) {
+            return builder.name(((TagSelector) node).tag);
+        } else if (node instanceof PropertyName) {
+            return builder.name(((PropertyName) node).name);
+        } else if (node instanceof VariableReference) {
+            return builder.name(((VariableReference) node).name);
+        } else if (node instanceof PixelLiteral) {
+            return ((PixelLiteral) node).value;
+        } else if (node instanceof PercentageLiteral) {
+            return ((PercentageLiteral) node).value;
+        } else if (node instanceof ScalarLiteral) {
+            return ((ScalarLiteral) node).value;
+        } else if (node instanceof ColorLiteral) {
+            return ((ColorLiteral) node).value;
+        } else if (node instanceof BoolLiteral) {
+            return ((BoolLiteral) node).value ? 1 : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int node) {
+        return NodeKind.valueOf(kinds[node]);
+    }
+
+    /**
+     * @return the parent of the node, -1 for the root
+     */
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int childCount(int node) {
+        return childStarts[node + 1] - childStarts[node];
+    }
+
+    public int childAt(int node, int index) {
+        if (index < 0 || index >= childCount(node)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + childCount(node) + " children");
+        }
+        return children[childStarts[node] + index];
+    }
+
+    /**
+     * @return the selector, property or variable name of the node
+     */
+    public String name(int node) {
+        if (!kind(node).hasName()) {
+            throw new IllegalArgumentException(kind(node) + " has no name");
+        }
+        return names[payloads[node]];
+    }
+
+    /**
+     * @return the value of a literal: the number, the packed colour, or 1 for TRUE and 0 for FALSE
+     */
+    public int value(int node) {
+        if (!kind(node).hasValue()) {
+            throw new IllegalArgumentException(kind(node) + " has no value");
+        }
+        return payloads[node];
+    }
+
+    /**
+     * @return a read-only view of the root, see {@link ArenaNode}
+     */
+    public ASTNode getRoot() {
+        return view(0);
+    }
+
+    /**
+     * @return the view of the node, made when it is first asked for
+     */
+    ArenaNode view(int node) {
+        //Another thread may make a view at the same time, the views are equivalent
+        ArenaNode[] views = this.views;
+        if (views == null) {
+            views = new ArenaNode[size];
+            this.views = views;
+        }
+        if (views[node] == null) {
+            views[node] = new ArenaNode(this, node);
+        }
+        return views[node];
+    }
+
+    /**
+     * @return the label of the node in the object tree, without building the node
+     */
+    String label(int node) {
+        switch (kind(node)) {
+            case STYLESHEET:
+                return "Stylesheet";
+            case STYLERULE:
+                return "Stylerule";
+            case CLASS_SELECTOR:
+                return "ClassSelector " + name(node);
+            case ID_SELECTOR:
+                return "IdSelector " + name(node);
+            case TAG_SELECTOR:
+                return "TagSelector " + name(node);
+            case DECLARATION:
+                return "Declaration";
+            case PROPERTY_NAME:
+                return "Property: (" + name(node) + ")";
+            case VARIABLE_ASSIGNMENT:
+                //The label shows the name, which is the first child
+                return "VariableAssignment (" + name(childAt(node, 0)) + ")";
+            case VARIABLE_REFERENCE:
+                return "VariableReference (" + name(node) + ")";
+            case IF_CLAUSE:
+                return "If_Clause";
+            case ELSE_CLAUSE:
+                return "Else_Clause";
+            case ADD:
+                return "Add";
+            case SUBTRACT:
+                return "Subtract";
+            case MULTIPLY:
+                return "Multiply";
+            default:
+                //Literals, the common values are shared
+                return newNode(node).getNodeLabel();
+        }
+    }
+
+    /**
+     * Builds the object tree this arena holds.
+     */
+    public AST toAST() {
+        ASTNode[] nodes = new ASTNode[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = newNode(i);
+            //Parents come before their children and siblings are numbered in order
+            if (i > 0) {
+                nodes[parents[i]].addChild(nodes[i]);
+            }
+        }
+        return new AST((Stylesheet) nodes[0]);
+    }
+
+    /**
+     * @return a node of the right type with the payload of the given node, without children
+     */
+    ASTNode newNode(int node) {
+        switch (kind(node)) {
+            case STYLESHEET:
+                return new Stylesheet();
+            case STYLERULE:
+                return new Stylerule();
+            case CLASS_SELECTOR:
+                return new ClassSelector(names[payloads[node]]);
+            case ID_SELECTOR:
+                return new IdSelector(names[payloads[node]]);
+            case TAG_SELECTOR:
+                return new TagSelector(names[payloads[node]]);
+            case DECLARATION:
+                return new Declaration();
+            case PROPERTY_NAME:
+                return new PropertyName(names[payloads[node]]);
+            case VARIABLE_ASSIGNMENT:
+                return new VariableAssignment();
+            case VARIABLE_REFERENCE:
+                return new VariableReference(names[payloads[node]]);
+            case IF_CLAUSE:
+                return new IfClause();
+            case ELSE_CLAUSE:
+                return new ElseClause();
+            case ADD:
+                return new AddOperation();
+            case SUBTRACT:
+                return new SubtractOperation();
+            case MULTIPLY:
+                return new MultiplyOperation();
+            case PIXEL:
+                return PixelLiteral.of(payloads[node]);
+            case PERCENTAGE:
+                return PercentageLiteral.of(payloads[node]);
+            case SCALAR:
+                return ScalarLiteral.of(payloads[node]);
+            case COLOR:
+                return ColorLiteral.of(payloads[node]);
+            default:
+                return BoolLiteral.of(payloads[node] != 0);
+        }
+    }
+
+    /**
+     * Fills an arena node by node. Nodes must be added in pre-order: the root first,
+     * every parent before its children and the children of a node in their order.
+     */
+    public static final class Builder {
+        private int size;
+        private byte[] kinds = new byte[64];
+        private int[] parents = new int[64];
+        private int[] payloads = new int[64];
+        private final Map<String, Integer> nameIndexes = new HashMap<>();
+
+        /**
+         * @param payload a literal value or an index returned by {@link #name(String)}
+         * @param parent  the index of the parent, -1 for the root
+         * @return the index of the node
+         */
+        public int add(NodeKind kind, int payload, int parent) {
+            if (size == 0 ? parent != -1 : parent < 0 || parent >= size) {
+                throw new IllegalArgumentException("Parent " + parent + " is not an earlier node for node " + size);
+            }
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                payloads = Arrays.copyOf(payloads, capacity);
+            }
+            kinds[size] = (byte) kind.ordinal();
+            parents[size] = parent;
+            payloads[size] = payload;
+            return size++;
+        }
+
+        /**
+         * @return the index of the name in the name table, the same index for equal names
+         */
+        public int name(String name) {
+            Integer index = nameIndexes.get(name);
+            if (index == null) {
+                index = nameIndexes.size();
+                nameIndexes.put(name, index);
+            }
+            return index;
+        }
+
+        public ArenaAST build() {
+            String[] names = new String[nameIndexes.size()];
+            for (Map.Entry<String, Integer> entry : nameIndexes.entrySet()) {
+                names[entry.getValue()] = entry.getKey();
+            }
+            return new ArenaAST(size, Arrays.copyOf(kinds, size), Arrays.copyOf(parents, size),
+                    Arrays.copyOf(payloads, size), names);
+        }
+    }
+}
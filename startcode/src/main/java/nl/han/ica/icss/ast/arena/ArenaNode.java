@@ -0,0 +1,89 @@
+package nl.han.ica.icss.ast.arena;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.NodeKind;
+
+import java.util.ArrayList;
+
+/**
+ * Read-only {@link ASTNode} view of one node of an {@link ArenaAST}. It has the labels
+ * and children of the object tree, so toString() gives the same text, but it is not
+ * one of the typed node classes and cannot be changed or given an error.
+ *
+ * The arena makes one view per node, when it is first visited, so walking the views
+ * again allocates nothing. Views are equal if they show the same node of the same arena.
+ */
+public class ArenaNode extends ASTNode {
+    private final ArenaAST arena;
+    private final int index;
+
+    ArenaNode(ArenaAST arena, int index) {
+        this.arena = arena;
+        this.index = index;
+    }
+
+    public ArenaAST getArena() {
+        return arena;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return arena.kind(index);
+    }
+
+    @Override
+    public String getNodeLabel() {
+        return arena.label(index);
+    }
+
+    @Override
+    public ArrayList<ASTNode> getChildren() {
+        ArrayList<ASTNode> children = new ArrayList<>(childCount());
+        for (int i = 0; i < childCount(); i++) {
+            children.add(childAt(i));
+        }
+        return children;
+    }
+
+    @Override
+    public int childCount() {
+        return arena.childCount(index);
+    }
+
+    @Override
+    public ASTNode childAt(int index) {
+        return arena.view(arena.childAt(this.index, index));
+    }
+
+    @Override
+    public ASTNode addChild(ASTNode child) {
+        throw new UnsupportedOperationException("An arena AST is read-only");
+    }
+
+    @Override
+    public ASTNode removeChild(ASTNode child) {
+        throw new UnsupportedOperationException("An arena AST is read-only");
+    }
+
+    @Override
+    public void setError(String description) {
+        throw new UnsupportedOperationException("An arena AST is read-only: " + description);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArenaNode that = (ArenaNode) o;
+        return arena == that.arena && index == that.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(arena) + index;
+    }
+}
@@ -1,10 +1,15 @@
 package nl.han.ica.icss.ast.literals;
 
 import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
 import java.util.Objects;
 
 public class BoolLiteral extends Literal {
-    public boolean value;
+    public static final BoolLiteral TRUE = new BoolLiteral(true);
+    public static final BoolLiteral FALSE = new BoolLiteral(false);
+
+    public final boolean value;
 
     public BoolLiteral(boolean value) {
         this.value = value;
@@ -12,6 +17,25 @@ public class BoolLiteral extends Literal {
     public BoolLiteral(String text) {
         this.value = text.equals("TRUE");
     }
+
+    public static BoolLiteral of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public static BoolLiteral of(String text) {
+        return of(text.equals("TRUE"));
+    }
+
+    @Override
+    public ExpressionType getType() {
+        return ExpressionType.BOOL;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.BOOL;
+    }
+
     @Override
     public String getNodeLabel() {
         String textValue = value ? "TRUE" : "FALSE";
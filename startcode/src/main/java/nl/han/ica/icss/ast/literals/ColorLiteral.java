@@ -1,18 +1,100 @@
 package nl.han.ica.icss.ast.literals;
 
 import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
-import java.util.Objects;
-
+/**
+ * A colour, stored as its red, green and blue bytes packed into an int (0xrrggbb).
+ */
 public class ColorLiteral extends Literal {
-    public String value;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    //Steps of the web safe colours, every channel is one of 00, 33, 66, 99, cc and ff
+    private static final int STEP = 0x33;
+    private static final ColorLiteral[] SHARED = new ColorLiteral[6 * 6 * 6];
+
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new ColorLiteral(((i / 36) * STEP << 16) | ((i / 6 % 6) * STEP << 8) | (i % 6) * STEP);
+        }
+    }
 
-    public ColorLiteral(String value) {
+    public final int value;
+
+    public ColorLiteral(int value) {
+        if ((value & ~0xffffff) != 0) {
+            throw new IllegalArgumentException("Not an RGB colour: " + Integer.toHexString(value));
+        }
         this.value = value;
     }
+
+    /**
+     * @param text colour as #rrggbb
+     */
+    public ColorLiteral(String text) {
+        this(parseHex(text));
+    }
+
+    /**
+     * @return a shared literal for the 216 web safe colours, like #ffffff and #000000, a new one otherwise
+     */
+    public static ColorLiteral of(int value) {
+        int red = value >> 16 & 0xff;
+        int green = value >> 8 & 0xff;
+        int blue = value & 0xff;
+        if ((value & ~0xffffff) == 0 && red % STEP == 0 && green % STEP == 0 && blue % STEP == 0) {
+            return SHARED[red / STEP * 36 + green / STEP * 6 + blue / STEP];
+        }
+        return new ColorLiteral(value);
+    }
+
+    /**
+     * @param text colour as #rrggbb
+     */
+    public static ColorLiteral of(String text) {
+        return of(parseHex(text));
+    }
+
+    /**
+     * @return the colour as #rrggbb, in lower case
+     */
+    public String getText() {
+        char[] text = new char[7];
+        text[0] = '#';
+        for (int i = 6; i > 0; i--) {
+            text[i] = HEX_DIGITS[(value >> (4 * (6 - i))) & 0xf];
+        }
+        return new String(text);
+    }
+
+    private static int parseHex(String text) {
+        if (text.length() != 7 || text.charAt(0) != '#') {
+            throw new NumberFormatException("Not a #rrggbb colour: \"" + text + "\"");
+        }
+        int value = 0;
+        for (int i = 1; i < 7; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                throw new NumberFormatException("Not a #rrggbb colour: \"" + text + "\"");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    @Override
+    public ExpressionType getType() {
+        return ExpressionType.COLOR;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.COLOR;
+    }
+
     @Override
     public String getNodeLabel() {
-        return "Color literal (" + value + ")";
+        return "Color literal (" + getText() + ")";
     }
 
 
@@ -21,11 +103,11 @@ public class ColorLiteral extends Literal {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ColorLiteral that = (ColorLiteral) o;
-        return Objects.equals(value, that.value);
+        return value == that.value;
     }
     @Override
     public int hashCode() {
 
-        return Objects.hash(value);
+        return Integer.hashCode(value);
     }
 }
@@ -1,18 +1,52 @@
 package nl.han.ica.icss.ast.literals;
 
 import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.Objects;
 
 public class PercentageLiteral extends Literal {
-    public int value;
+    private static final PercentageLiteral[] SHARED = new PercentageLiteral[100 + 1];
+
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new PercentageLiteral(i);
+        }
+    }
+
+    public final int value;
 
     public PercentageLiteral(int value) {
         this.value = value;
     }
     public PercentageLiteral(String text) {
-        this.value = Integer.parseInt(text.substring(0, text.length() - 1));
+        this.value = parseDigits(text, 0, text.length() - 1);
+    }
+
+    /**
+     * @return a shared literal for values from 0 to 100, a new one otherwise
+     */
+    public static PercentageLiteral of(int value) {
+        return value >= 0 && value < SHARED.length ? SHARED[value] : new PercentageLiteral(value);
+    }
+
+    /**
+     * @param text value as written in ICSS, like 10%
+     */
+    public static PercentageLiteral of(String text) {
+        return of(parseDigits(text, 0, text.length() - 1));
     }
+    @Override
+    public ExpressionType getType() {
+        return ExpressionType.PERCENTAGE;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PERCENTAGE;
+    }
+
     @Override
     public String getNodeLabel() {
         return "Percentage literal (" + value + ")";
@@ -1,18 +1,52 @@
 package nl.han.ica.icss.ast.literals;
 
 import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.Objects;
 
 public class PixelLiteral extends Literal {
-    public int value;
+    private static final PixelLiteral[] SHARED = new PixelLiteral[1024 + 1];
+
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new PixelLiteral(i);
+        }
+    }
+
+    public final int value;
 
     public PixelLiteral(int value) {
         this.value = value;
     }
     public PixelLiteral(String text) {
-        this.value = Integer.parseInt(text.substring(0, text.length() - 2));
+        this.value = parseDigits(text, 0, text.length() - 2);
+    }
+
+    /**
+     * @return a shared literal for values from 0 to 1024, a new one otherwise
+     */
+    public static PixelLiteral of(int value) {
+        return value >= 0 && value < SHARED.length ? SHARED[value] : new PixelLiteral(value);
+    }
+
+    /**
+     * @param text value as written in ICSS, like 10px
+     */
+    public static PixelLiteral of(String text) {
+        return of(parseDigits(text, 0, text.length() - 2));
     }
+    @Override
+    public ExpressionType getType() {
+        return ExpressionType.PIXEL;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PIXEL;
+    }
+
     @Override
     public String getNodeLabel() {
         return "Pixel literal (" + value + ")";
@@ -1,18 +1,52 @@
 package nl.han.ica.icss.ast.literals;
 
 import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.Objects;
 
 public class ScalarLiteral extends Literal {
-    public int value;
+    private static final ScalarLiteral[] SHARED = new ScalarLiteral[100 + 1];
+
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new ScalarLiteral(i);
+        }
+    }
+
+    public final int value;
 
     public ScalarLiteral(int value) {
         this.value = value;
     }
     public ScalarLiteral(String text) {
-        this.value = Integer.parseInt(text);
+        this.value = parseDigits(text, 0, text.length());
+    }
+
+    /**
+     * @return a shared literal for values from 0 to 100, a new one otherwise
+     */
+    public static ScalarLiteral of(int value) {
+        return value >= 0 && value < SHARED.length ? SHARED[value] : new ScalarLiteral(value);
+    }
+
+    /**
+     * @param text value as written in ICSS, like 10
+     */
+    public static ScalarLiteral of(String text) {
+        return of(parseDigits(text, 0, text.length()));
     }
+    @Override
+    public ExpressionType getType() {
+        return ExpressionType.SCALAR;
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.SCALAR;
+    }
+
     @Override
     public String getNodeLabel() {
         return "Scalar literal (" + value + ")";
@@ -1,9 +1,15 @@
 package nl.han.ica.icss.ast.operations;
 
+import nl.han.ica.icss.ast.NodeKind;
 import nl.han.ica.icss.ast.Operation;
 
 public class AddOperation extends Operation {
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.ADD;
+    }
+
     @Override
     public String getNodeLabel() {
         return "Add";
@@ -1,5 +1,6 @@
 package nl.han.ica.icss.ast.selectors;
 
+import nl.han.ica.icss.ast.NodeKind;
 import nl.han.ica.icss.ast.Selector;
 
 import java.util.Objects;
@@ -11,6 +12,11 @@ public class ClassSelector extends Selector {
         this.cls = cls;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.CLASS_SELECTOR;
+    }
+
     @Override
     public String getNodeLabel() {
         return "ClassSelector " + cls;
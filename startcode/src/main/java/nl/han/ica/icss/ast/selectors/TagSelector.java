@@ -1,5 +1,6 @@
 package nl.han.ica.icss.ast.selectors;
 
+import nl.han.ica.icss.ast.NodeKind;
 import nl.han.ica.icss.ast.Selector;
 
 import java.util.Objects;
@@ -11,6 +12,11 @@ public class TagSelector extends Selector {
         this.tag = tag;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.TAG_SELECTOR;
+    }
+
     public String getNodeLabel() {
         return "TagSelector " + tag;
     }
@@ -0,0 +1,187 @@
+package nl.han.ica.icss.batch;
+
+import nl.han.ica.icss.CompileError;
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.parser.SourceStreams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles every .icss file below a source directory to css. Files are compiled
+ * independently of each other on a work-stealing pool, sharing one {@link CompilerService},
+ * so the output of a file does not depend on the number of threads used.
+ */
+public class BatchCompiler {
+    public static final String SOURCE_EXTENSION = ".icss";
+    public static final String OUTPUT_EXTENSION = ".css";
+
+    private final Path sourceRoot;
+    private final Path outputRoot;
+    private final int parallelism;
+    private final CompilerService compiler;
+    private final BuildCache cache;
+
+    /**
+     * @param sourceRoot  directory (or single file) to compile
+     * @param outputRoot  directory to mirror the source tree in, or null to write the css next to the sources
+     * @param parallelism number of worker threads
+     * @param cache       cache to reuse the output of unchanged sources from, or null to compile everything
+     */
+    public BatchCompiler(Path sourceRoot, Path outputRoot, int parallelism, BuildCache cache) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.sourceRoot = sourceRoot.toAbsolutePath().normalize();
+        this.outputRoot = outputRoot == null ? null : outputRoot.toAbsolutePath().normalize();
+        this.parallelism = parallelism;
+        this.compiler = new CompilerService();
+        this.cache = cache;
+    }
+
+    public BatchCompiler(Path sourceRoot, Path outputRoot, int parallelism) {
+        this(sourceRoot, outputRoot, parallelism, null);
+    }
+
+    public BatchCompiler(Path sourceRoot, Path outputRoot) {
+        this(sourceRoot, outputRoot, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Path getSourceRoot() {
+        return sourceRoot;
+    }
+
+    public BatchResult compile() throws IOException {
+        long start = System.nanoTime();
+        List<Path> sources = findSources();
+
+        List<Callable<FileResult>> tasks = new ArrayList<>(sources.size());
+        for (Path source : sources) {
+            tasks.add(() -> compileFile(source));
+        }
+
+        List<FileResult> results = new ArrayList<>(sources.size());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<FileResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch build interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        evictCache();
+        return new BatchResult(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Trims the cache, if there is one, to its size limit.
+     */
+    void evictCache() throws IOException {
+        if (cache != null) {
+            cache.evict();
+        }
+    }
+
+    /**
+     * Lists all sources below the source root, sorted so that results are reported
+     * in the same order on every run.
+     */
+    public List<Path> findSources() throws IOException {
+        if (Files.isRegularFile(sourceRoot)) {
+            return Collections.singletonList(sourceRoot);
+        }
+        try (Stream<Path> paths = Files.walk(sourceRoot)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(this::isSource)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return true if the path is an ICSS file that belongs to this build
+     */
+    public boolean isSource(Path path) {
+        if (!path.getFileName().toString().endsWith(SOURCE_EXTENSION)) {
+            return false;
+        }
+        return Files.isRegularFile(sourceRoot) ? path.equals(sourceRoot) : path.startsWith(sourceRoot);
+    }
+
+    public Path outputFor(Path source) {
+        String name = source.getFileName().toString();
+        String cssName = name.substring(0, name.length() - SOURCE_EXTENSION.length()) + OUTPUT_EXTENSION;
+        if (outputRoot == null) {
+            return source.resolveSibling(cssName);
+        }
+        Path relative = Files.isRegularFile(sourceRoot)
+                ? source.getFileName()
+                : sourceRoot.relativize(source);
+        return outputRoot.resolve(relative).resolveSibling(cssName);
+    }
+
+    FileResult compileFile(Path source) {
+        Path output = outputFor(source);
+        List<String> errors = new ArrayList<>();
+        try {
+            ByteBuffer input = SourceStreams.map(source);
+            String key = null;
+            if (cache != null) {
+                key = cache.key(input);
+                if (cache.copyTo(key, output)) {
+                    return new FileResult(source, output, errors, true);
+                }
+            }
+
+            //The css is streamed to a temporary file, so a failed compile leaves the previous output alone
+            Files.createDirectories(output.getParent());
+            Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+            try {
+                CompileResult result;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    result = compiler.compile(input, channel);
+                }
+                for (CompileError error : result.getErrors()) {
+                    errors.add(error.toString());
+                }
+                if (result.isSucceeded()) {
+                    Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+                    if (cache != null) {
+                        cache.store(key, output);
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new FileResult(source, output, errors, false);
+    }
+}
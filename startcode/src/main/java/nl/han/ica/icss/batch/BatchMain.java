@@ -0,0 +1,119 @@
+package nl.han.ica.icss.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point for compiling directory trees of ICSS without the GUI.
+ *
+ * Usage: BatchMain [-o output-dir] [-j threads] [--cache cache-dir [--cache-size megabytes]]
+ *                  [--watch [--debounce millis]] source-dir
+ */
+public class BatchMain {
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_ERRORS = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final long DEFAULT_CACHE_MEGABYTES = 256;
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        Path source = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path cacheDirectory = null;
+        long cacheMegabytes = DEFAULT_CACHE_MEGABYTES;
+        boolean watch = false;
+        long debounceMillis = WatchCompiler.DEFAULT_DEBOUNCE_MILLIS;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-o":
+                    case "--output":
+                        output = Paths.get(args[++i]);
+                        break;
+                    case "-j":
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cache":
+                        cacheDirectory = Paths.get(args[++i]);
+                        break;
+                    case "--cache-size":
+                        cacheMegabytes = Long.parseLong(args[++i]);
+                        break;
+                    case "--watch":
+                        watch = true;
+                        break;
+                    case "--debounce":
+                        debounceMillis = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        if (source != null) return usage("Unexpected argument: " + args[i]);
+                        source = Paths.get(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return usage("Invalid arguments");
+        }
+        if (source == null) return usage("No source directory given");
+
+        try {
+            BuildCache cache = cacheDirectory == null ? null : openCache(cacheDirectory, cacheMegabytes);
+            BatchCompiler compiler = new BatchCompiler(source, output, threads, cache);
+            //Made before compiling, so invalid watch options are reported right away
+            WatchCompiler watcher = watch ? new WatchCompiler(compiler, debounceMillis, System.out) : null;
+            BatchResult result = compiler.compile();
+            report(result);
+            if (watcher != null) {
+                watcher.run();
+            }
+            return result.isSucceeded() ? EXIT_OK : EXIT_ERRORS;
+        } catch (IllegalArgumentException e) {
+            return usage(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e);
+            return EXIT_ERRORS;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_ERRORS;
+        }
+    }
+
+    /**
+     * @return the cache, or null to compile everything if it cannot be used
+     */
+    private static BuildCache openCache(Path directory, long megabytes) {
+        try {
+            return new BuildCache(directory, megabytes * 1024 * 1024);
+        } catch (IOException e) {
+            System.err.println("Compiling without cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void report(BatchResult result) {
+        for (FileResult file : result.getFiles()) {
+            for (String error : file.getErrors()) {
+                System.err.println(file.getSource() + ": " + error);
+            }
+        }
+        System.out.printf("Compiled %d files (%d from cache, %d failed) in %.1f ms, %.1f files/sec%n",
+                result.getFiles().size(),
+                result.getCachedCount(),
+                result.getFailureCount(),
+                result.getWallTimeNanos() / 1_000_000.0,
+                result.getFilesPerSecond());
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: BatchMain [-o output-dir] [-j threads] [--cache cache-dir [--cache-size megabytes]]");
+        System.err.println("                 [--watch [--debounce millis]] source-dir");
+        return EXIT_USAGE;
+    }
+}
@@ -0,0 +1,51 @@
+package nl.han.ica.icss.batch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batch build. File results are kept in source order, regardless of
+ * the order in which the worker threads finished them.
+ */
+public class BatchResult {
+    private final List<FileResult> files;
+    private final long wallTimeNanos;
+
+    public BatchResult(List<FileResult> files, long wallTimeNanos) {
+        this.files = Collections.unmodifiableList(files);
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    public List<FileResult> getFiles() {
+        return files;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    public int getFailureCount() {
+        int failures = 0;
+        for (FileResult file : files) {
+            if (!file.isSucceeded()) failures++;
+        }
+        return failures;
+    }
+
+    public int getCachedCount() {
+        int cached = 0;
+        for (FileResult file : files) {
+            if (file.isCached()) cached++;
+        }
+        return cached;
+    }
+
+    public boolean isSucceeded() {
+        return getFailureCount() == 0;
+    }
+
+    public double getFilesPerSecond() {
+        if (wallTimeNanos == 0) return 0;
+        return files.size() / (wallTimeNanos / 1_000_000_000.0);
+    }
+}
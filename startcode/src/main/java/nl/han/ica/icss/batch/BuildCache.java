@@ -0,0 +1,227 @@
+package nl.han.ica.icss.batch;
+
+import nl.han.ica.icss.CompilerService;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of generated css, keyed by a hash of the source text and of the classes
+ * of the compiler. Any change to the compiler, released or not, starts with an empty cache.
+ *
+ * Entries are written to a temporary file and atomically renamed into place, and
+ * are never modified afterwards, so several build processes can share one cache
+ * directory. The last modified time of an entry is refreshed on every hit; when the
+ * cache grows beyond its size limit the least recently used entries are evicted.
+ */
+public class BuildCache {
+    private static final String FORMAT_VERSION = "1";
+    private static final String ENTRY_EXTENSION = ".css";
+    private static final String LOCK_FILE = ".lock";
+    private static final long STALE_TEMP_FILE_MILLIS = 60 * 60 * 1000;
+
+    private static byte[] compilerHash;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final byte[] salt;
+
+    /**
+     * @param directory cache directory, created if it does not exist
+     * @param maxBytes  size the cache is trimmed to by {@link #evict()}
+     * @throws IOException if the directory cannot be created or the classes of the compiler cannot be read
+     */
+    public BuildCache(Path directory, long maxBytes) throws IOException {
+        MessageDigest salt = sha256();
+        salt.update((FORMAT_VERSION + '\n').getBytes(StandardCharsets.UTF_8));
+        salt.update(compilerHash());
+
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.salt = salt.digest();
+    }
+
+    /**
+     * @return a hash of the class files of the compiler, or of the jar they are loaded
+     * from, computed once. Callers must not change the array.
+     * @throws IOException if the classes of the compiler cannot be read
+     */
+    public static synchronized byte[] compilerHash() throws IOException {
+        if (compilerHash != null) return compilerHash;
+
+        CodeSource codeSource = CompilerService.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            throw new IOException("Cannot find the classes of the compiler");
+        }
+        Path location;
+        try {
+            location = Paths.get(codeSource.getLocation().toURI());
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            throw new IOException("Cannot read the classes of the compiler from " + codeSource.getLocation(), e);
+        }
+
+        MessageDigest digest = sha256();
+        if (Files.isDirectory(location)) {
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(location)) {
+                files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        } else {
+            digest.update(Files.readAllBytes(location));
+        }
+        compilerHash = digest.digest();
+        return compilerHash;
+    }
+
+    /**
+     * @return the cache key of the remaining bytes of the source buffer
+     */
+    public String key(ByteBuffer source) {
+        MessageDigest digest = sha256();
+        digest.update(salt);
+        digest.update(source.duplicate());
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16));
+            key.append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Copies the cached css for the key to the output file.
+     *
+     * @return false if the cache holds no entry for the key
+     */
+    public boolean copyTo(String key, Path output) throws IOException {
+        Path entry = entryFor(key);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try {
+            Files.copy(entry, output, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            //Not cached, or evicted by another build in the meantime
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            //Evicted right after copying, the copy itself is complete
+        }
+        return true;
+    }
+
+    /**
+     * Stores a copy of the css file under the key.
+     */
+    public void store(String key, Path css) throws IOException {
+        Path entry = entryFor(key);
+        Files.createDirectories(entry.getParent());
+
+        Path temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+        try {
+            Files.copy(css, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits its size limit.
+     * Holds an exclusive lock on the cache directory so that concurrent builds do not
+     * evict at the same time.
+     */
+    @SuppressWarnings("try") //The lock is only held, never used
+    public void evict() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+
+            List<Entry> entries = new ArrayList<>();
+            long totalBytes = 0;
+            long now = System.currentTimeMillis();
+            for (Path path : listFiles()) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (path.getFileName().toString().endsWith(ENTRY_EXTENSION)) {
+                    entries.add(new Entry(path, attributes.size(), modified));
+                    totalBytes += attributes.size();
+                } else if (now - modified > STALE_TEMP_FILE_MILLIS) {
+                    //Left behind by a build that crashed while storing
+                    Files.deleteIfExists(path);
+                }
+            }
+
+            entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+            for (Entry entry : entries) {
+                if (totalBytes <= maxBytes) break;
+                Files.deleteIfExists(entry.path);
+                totalBytes -= entry.size;
+            }
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        //Other builds may add and remove files while we list them, so no Files.walk here
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> buckets = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path bucket : buckets) {
+                try (DirectoryStream<Path> bucketFiles = Files.newDirectoryStream(bucket)) {
+                    for (Path file : bucketFiles) {
+                        files.add(file);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path entryFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class Entry {
+        final Path path;
+        final long size;
+        final long lastUsed;
+
+        Entry(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nl.han.ica.icss.batch;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of compiling a single ICSS file in a batch.
+ */
+public class FileResult {
+    private final Path source;
+    private final Path output;
+    private final List<String> errors;
+    private final boolean cached;
+
+    public FileResult(Path source, Path output, List<String> errors, boolean cached) {
+        this.source = source;
+        this.output = output;
+        this.errors = Collections.unmodifiableList(errors);
+        this.cached = cached;
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return true if the output was copied from the build cache instead of compiled
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public boolean isSucceeded() {
+        return errors.isEmpty();
+    }
+}
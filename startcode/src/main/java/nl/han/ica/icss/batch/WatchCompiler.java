@@ -0,0 +1,179 @@
+package nl.han.ica.icss.batch;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps recompiling the sources of a batch build as they change. Bursts of file
+ * events (editors often write a file several times per save) are collected until
+ * the source tree has been quiet for the debounce interval, or until the first event
+ * of the burst is the maximum delay old, then only the changed files are recompiled.
+ * The css of deleted sources is removed.
+ */
+public class WatchCompiler {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 500;
+
+    private final BatchCompiler compiler;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final PrintStream out;
+    private final Map<WatchKey, Path> directories;
+
+    /**
+     * @param debounceMillis quiet time after which the changes are compiled
+     * @param maxDelayMillis time after which the changes are compiled while events keep coming
+     * @throws IllegalArgumentException if either time is negative
+     */
+    public WatchCompiler(BatchCompiler compiler, long debounceMillis, long maxDelayMillis, PrintStream out) {
+        if (debounceMillis < 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Debounce and maximum delay must not be negative, got "
+                    + debounceMillis + " and " + maxDelayMillis + " ms");
+        }
+        this.compiler = compiler;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.out = out;
+        this.directories = new HashMap<>();
+    }
+
+    public WatchCompiler(BatchCompiler compiler, long debounceMillis, PrintStream out) {
+        this(compiler, debounceMillis, Math.max(debounceMillis, DEFAULT_MAX_DELAY_MILLIS), out);
+    }
+
+    /**
+     * Watches the source tree until the thread is interrupted.
+     */
+    public void run() throws IOException, InterruptedException {
+        Path sourceRoot = compiler.getSourceRoot();
+        Path watchRoot = Files.isRegularFile(sourceRoot) ? sourceRoot.getParent() : sourceRoot;
+
+        try (WatchService watchService = watchRoot.getFileSystem().newWatchService()) {
+            register(watchService, watchRoot);
+            out.println("Watching " + compiler.getSourceRoot() + " for changes...");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new TreeSet<>();
+                boolean overflow = collect(watchService, watchService.take(), changed);
+
+                //A file written over and over again would otherwise never be compiled
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                long wait;
+                WatchKey key;
+                while ((wait = Math.min(TimeUnit.MILLISECONDS.toNanos(debounceMillis), deadline - System.nanoTime())) > 0
+                        && (key = watchService.poll(wait, TimeUnit.NANOSECONDS)) != null) {
+                    overflow |= collect(watchService, key, changed);
+                }
+                if (overflow) {
+                    //Events were lost, so we cannot tell what changed
+                    changed.addAll(compiler.findSources());
+                }
+                recompile(changed);
+            }
+        }
+    }
+
+    /**
+     * Adds the sources created, modified or deleted by the events of the key to the changed set.
+     *
+     * @return true if the watch service dropped events
+     */
+    private boolean collect(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+        if (directory == null) {
+            key.cancel();
+            return false;
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                //Sources may have been written to the new directory before we watched it
+                register(watchService, path);
+                try (Stream<Path> paths = Files.walk(path)) {
+                    paths.filter(compiler::isSource).forEach(changed::add);
+                }
+            } else if (compiler.isSource(path)) {
+                //Whether it was deleted is decided when recompiling, it may have been written again since
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void recompile(Set<Path> sources) {
+        for (Path source : sources) {
+            if (!Files.isRegularFile(source)) {
+                removeOutput(source);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            FileResult result;
+            try {
+                result = compiler.compileFile(source);
+            } catch (UncheckedIOException e) {
+                out.println(source + ": " + e.getCause());
+                continue;
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+            if (result.isSucceeded()) {
+                out.printf("%s -> %s in %.3f ms%n", source, result.getOutput(), millis);
+            } else {
+                for (String error : result.getErrors()) {
+                    out.println(source + ": " + error);
+                }
+                out.printf("%s failed in %.3f ms%n", source, millis);
+            }
+        }
+
+        //Recompiles store their css in the cache too
+        try {
+            compiler.evictCache();
+        } catch (IOException e) {
+            out.println("Cache eviction failed: " + e);
+        }
+    }
+
+    private void removeOutput(Path source) {
+        Path output = compiler.outputFor(source);
+        try {
+            if (Files.deleteIfExists(output)) {
+                out.println(source + " deleted, removed " + output);
+            }
+        } catch (IOException e) {
+            out.println(source + ": " + e);
+        }
+    }
+
+    private void register(WatchService watchService, Path root) throws IOException {
+        List<Path> subdirectories;
+        try (Stream<Path> paths = Files.walk(root)) {
+            subdirectories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+        for (Path directory : subdirectories) {
+            directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.types.ExpressionType;
+
+/**
+ * What the {@link RuleEngine} knows at the node being checked.
+ */
+public interface CheckContext {
+
+    /**
+     * @return the type of the variable the reference refers to, null if the variable is not assigned before it
+     */
+    ExpressionType getVariableType(VariableReference reference);
+
+    /**
+     * Reports an error of the node to the compilation being checked.
+     */
+    void report(ASTNode node, String description);
+}
@@ -0,0 +1,27 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.NodeKind;
+
+import java.util.Set;
+
+/**
+ * A semantic check on nodes of the kinds it registers for. The {@link RuleEngine} calls
+ * the rule for every node of those kinds, in one traversal shared by all rules.
+ *
+ * Expressions are checked after the expressions in them, with their types inferred.
+ * Declarations, assignments and if clauses are checked after their expressions, the
+ * other nodes before their children.
+ */
+public interface CheckRule {
+
+    /**
+     * @return the kinds of nodes passed to {@link #check}
+     */
+    Set<NodeKind> getKinds();
+
+    /**
+     * Reports the problems of the node with {@link CheckContext#report}.
+     */
+    void check(ASTNode node, CheckContext context);
+}
@@ -1,42 +1,144 @@
 package nl.han.ica.icss.checker;
 
 import nl.han.ica.icss.ast.*;
-import nl.han.ica.icss.checker.visitor.CheckerVisitor;
-import nl.han.ica.icss.checker.visitor.Visitor;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.checker.rules.ConditionTypeRule;
+import nl.han.ica.icss.checker.rules.OperationTypeRule;
+import nl.han.ica.icss.checker.rules.PropertyTypeRule;
+import nl.han.ica.icss.checker.rules.UndefinedVariableRule;
+import nl.han.ica.icss.parallel.RuleParallelism;
+import nl.han.ica.icss.scope.Environment;
+import nl.han.ica.icss.scope.ScopeResolver;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class Checker {
-    private List<Visitor> visitors = new ArrayList<>();
+    private final RuleEngine engine;
+    private RuleParallelism parallelism = RuleParallelism.SEQUENTIAL;
+
+    public Checker() {
+        this(defaultRules());
+    }
+
+    /**
+     * @param rules the rules to check, for example the default rules followed by lint rules
+     */
+    public Checker(List<CheckRule> rules) {
+        this.engine = new RuleEngine(rules);
+    }
+
+    /**
+     * @return the rules of the ICSS language, in the order they are run for a node
+     */
+    public static List<CheckRule> defaultRules() {
+        return Arrays.asList(
+                new UndefinedVariableRule(),
+                new OperationTypeRule(),
+                new PropertyTypeRule(),
+                new ConditionTypeRule()
+        );
+    }
+
+    /**
+     * Measures the time spent in every rule during the next checks, see {@link #getRuleNanos()}.
+     */
+    public void setTimed(boolean timed) {
+        engine.setTimed(timed);
+    }
+
+    /**
+     * Checks the top-level nodes of large stylesheets in parallel. The rules of this
+     * checker then run on several threads at the same time.
+     */
+    public void setParallelism(RuleParallelism parallelism) {
+        this.parallelism = parallelism;
+    }
 
     public void check(AST ast) {
-        initializeVisitors();
-        ast.root.accept(visitors);
-
-        for (ASTNode node : ast.root.body) {
-            if (node instanceof Stylerule) {
-                Stylerule stylerule = (Stylerule) node;
-                stylerule.accept(visitors);
-
-                for (ASTNode rule : stylerule.body) {
-                    if (rule instanceof Declaration) {
-                        ((Declaration) rule).accept(visitors);
-                    } else if (rule instanceof IfClause) {
-                        ((IfClause) rule).accept(visitors);
+        ErrorIndex errorIndex = new ErrorIndex();
+        check(ast.root, errorIndex);
+        ast.setErrorIndex(errorIndex);
+    }
+
+    private void check(Stylesheet stylesheet, ErrorIndex errorIndex) {
+        int[] bounds = parallelism.split(stylesheet.body.size());
+        if (bounds.length == 2) {
+            new ScopeResolver().resolve(stylesheet);
+            engine.check(stylesheet, errorIndex);
+            return;
+        }
+
+        //The global variables are checked first, the ranges start with the slots and types of those assigned before them
+        List<Map<String, Integer>> slots = new ArrayList<>(bounds.length - 1);
+        List<Environment<ExpressionType>> types = new ArrayList<>(bounds.length - 1);
+        Map<ASTNode, ErrorIndex> globalErrors = new IdentityHashMap<>();
+        Map<String, Integer> globalSlots = new HashMap<>();
+        Environment<ExpressionType> globalTypes = new Environment<>();
+        globalTypes.enter();
+        ScopeResolver resolver = new ScopeResolver();
+        RuleEngine globalEngine = new RuleEngine(engine);
+        ErrorIndex assignmentErrors = new ErrorIndex();
+        for (int range = 0; range < bounds.length - 1; range++) {
+            slots.add(new HashMap<>(globalSlots));
+            types.add(globalTypes.copy());
+            for (int i = bounds[range]; i < bounds[range + 1]; i++) {
+                ASTNode node = stylesheet.body.get(i);
+                if (node instanceof VariableAssignment) {
+                    resolver.resolve(stylesheet.body, i, i + 1, globalSlots);
+                    globalEngine.checkGlobal((VariableAssignment) node, globalTypes, assignmentErrors);
+                    if (!assignmentErrors.isEmpty()) {
+                        globalErrors.put(node, assignmentErrors);
+                        assignmentErrors = new ErrorIndex();
                     }
                 }
-            } else if (node instanceof VariableAssignment) {
-                ((VariableAssignment) node).accept(visitors);
             }
         }
+
+        List<Range> ranges = parallelism.map(bounds, (range, from, to) -> {
+            RuleEngine rangeEngine = new RuleEngine(engine);
+            ErrorIndex rangeErrors = new ErrorIndex();
+            new ScopeResolver().resolve(stylesheet.body, from, to, slots.get(range), true);
+            rangeEngine.check(stylesheet, from, to, types.get(range), rangeErrors, globalErrors);
+            return new Range(rangeEngine, rangeErrors);
+        });
+
+        //In source order, as if the ranges were checked one after the other
+        engine.clearNanos();
+        engine.addNanos(globalEngine);
+        for (Range range : ranges) {
+            errorIndex.addAll(range.errors);
+            engine.addNanos(range.engine);
+        }
     }
 
-    private void initializeVisitors() {
-        visitors = Arrays.asList(
-                new CheckerVisitor()
-        );
+    /**
+     * @return nanoseconds spent in each rule during the last check, 0 if it was not timed
+     */
+    public Map<CheckRule, Long> getRuleNanos() {
+        Map<CheckRule, Long> nanos = new LinkedHashMap<>();
+        for (CheckRule rule : engine.getRules()) {
+            nanos.put(rule, engine.getNanos(rule));
+        }
+        return nanos;
+    }
+
+    /**
+     * A range of top-level nodes checked on its own.
+     */
+    private static class Range {
+        final RuleEngine engine;
+        final ErrorIndex errors;
+
+        Range(RuleEngine engine, ErrorIndex errors) {
+            this.engine = engine;
+            this.errors = errors;
+        }
     }
 }
@@ -0,0 +1,326 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.scope.Environment;
+import nl.han.ica.icss.scope.ScopeResolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs check rules over a stylesheet whose variables are resolved by the {@link ScopeResolver}.
+ *
+ * The engine walks the stylesheet once, with an explicit stack, and passes every node
+ * to the rules registered for its kind only. On the way it infers the types of variable
+ * references and operations and keeps the types of the variables in scope in an
+ * {@link Environment}. The inferred types are left on the AST.
+ *
+ * The time spent in each rule is measured if timing is switched on, the timer calls
+ * cost about as much as a cheap rule.
+ */
+public class RuleEngine implements CheckContext {
+    private static final int VISIT = 0;
+    private static final int CHECK = 1;
+    private static final int ENTER = 2;
+    private static final int LEAVE = 3;
+    private static final int ASSIGN = 4;
+    private static final int ASSIGN_CHECKED = 5;
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<CheckRule> rules;
+    //Indices into rules, by node kind
+    private final int[][] rulesByKind;
+    private final long[] nanos;
+    private boolean timed;
+
+    private Environment<ExpressionType> variables;
+    private ErrorIndex errors;
+    //Errors of the top-level assignments checked before the nodes, null if they are checked with them
+    private Map<ASTNode, ErrorIndex> globalErrors;
+
+    //The work stack: what to do with which node
+    private int[] actions = new int[64];
+    private ASTNode[] nodes = new ASTNode[64];
+    private int size;
+
+    public RuleEngine(List<CheckRule> rules) {
+        this.rules = new ArrayList<>(rules);
+        this.nanos = new long[rules.size()];
+        this.rulesByKind = new int[NodeKind.values().length][];
+
+        Arrays.fill(rulesByKind, NO_RULES);
+        for (int rule = 0; rule < rules.size(); rule++) {
+            for (NodeKind kind : rules.get(rule).getKinds()) {
+                int[] registered = Arrays.copyOf(rulesByKind[kind.ordinal()], rulesByKind[kind.ordinal()].length + 1);
+                registered[registered.length - 1] = rule;
+                rulesByKind[kind.ordinal()] = registered;
+            }
+        }
+    }
+
+    /**
+     * An engine with the rules of the prototype, to check other nodes at the same time.
+     */
+    RuleEngine(RuleEngine prototype) {
+        this.rules = prototype.rules;
+        this.rulesByKind = prototype.rulesByKind;
+        this.nanos = new long[rules.size()];
+        this.timed = prototype.timed;
+    }
+
+    public List<CheckRule> getRules() {
+        return rules;
+    }
+
+    public void setTimed(boolean timed) {
+        this.timed = timed;
+    }
+
+    /**
+     * @return nanoseconds spent in the rule while timing was on
+     */
+    public long getNanos(CheckRule rule) {
+        int index = rules.indexOf(rule);
+        return index < 0 ? 0 : nanos[index];
+    }
+
+    void clearNanos() {
+        Arrays.fill(nanos, 0);
+    }
+
+    /**
+     * Adds the times the other engine measured for the same rules to those of this engine.
+     */
+    void addNanos(RuleEngine other) {
+        for (int rule = 0; rule < nanos.length; rule++) {
+            nanos[rule] += other.nanos[rule];
+        }
+    }
+
+    @Override
+    public ExpressionType getVariableType(VariableReference reference) {
+        return variables.get(reference);
+    }
+
+    @Override
+    public void report(ASTNode node, String description) {
+        errors.report(node, description);
+    }
+
+    /**
+     * Checks the stylesheet. The engine can be reused, the times are those of the last check.
+     *
+     * @param errors index of the compilation the errors are reported to
+     */
+    public void check(Stylesheet stylesheet, ErrorIndex errors) {
+        clearNanos();
+        Environment<ExpressionType> globals = new Environment<>();
+        globals.enter();
+        check(stylesheet, 0, stylesheet.body.size(), globals, errors);
+    }
+
+    /**
+     * Checks the top-level nodes from (inclusive) to (exclusive) of the stylesheet. The
+     * stylesheet itself is checked with its first node.
+     *
+     * @param globals types of the global variables assigned before the nodes, the globals the nodes assign are added
+     * @param errors  index the errors are reported to
+     */
+    public void check(Stylesheet stylesheet, int from, int to, Environment<ExpressionType> globals, ErrorIndex errors) {
+        check(stylesheet, from, to, globals, errors, null);
+    }
+
+    /**
+     * Checks the top-level nodes but the variable assignments, which were checked before
+     * with {@link #checkGlobal}. Their variables are assigned the types of their
+     * expressions, and the errors found in them are added in their place.
+     *
+     * @param globalErrors errors of the top-level assignments, by assignment, assignments without errors are left out
+     */
+    void check(Stylesheet stylesheet, int from, int to, Environment<ExpressionType> globals, ErrorIndex errors,
+               Map<ASTNode, ErrorIndex> globalErrors) {
+        variables = globals;
+        this.errors = errors;
+        this.globalErrors = globalErrors;
+        if (from == 0) {
+            dispatch(stylesheet);
+        }
+        for (int i = to - 1; i >= from; i--) {
+            ASTNode node = stylesheet.body.get(i);
+            push(globalErrors != null && node instanceof VariableAssignment ? ASSIGN_CHECKED : VISIT, node);
+        }
+        run();
+    }
+
+    /**
+     * Checks a top-level variable assignment on its own, so the ranges of top-level nodes
+     * after it can be checked at the same time.
+     *
+     * @param globals types of the global variables assigned before it, its variable is added
+     */
+    void checkGlobal(VariableAssignment variableAssignment, Environment<ExpressionType> globals, ErrorIndex errors) {
+        variables = globals;
+        this.errors = errors;
+        this.globalErrors = null;
+        push(VISIT, variableAssignment);
+        run();
+    }
+
+    private void run() {
+        while (size > 0) {
+            size--;
+            int action = actions[size];
+            ASTNode node = nodes[size];
+            nodes[size] = null;
+
+            switch (action) {
+                case VISIT:
+                    visit(node);
+                    break;
+                case CHECK:
+                    dispatch(node);
+                    break;
+                case ENTER:
+                    dispatch(node);
+                    variables.enter();
+                    break;
+                case LEAVE:
+                    variables.leave();
+                    break;
+                case ASSIGN:
+                    VariableAssignment variableAssignment = (VariableAssignment) node;
+                    dispatch(variableAssignment);
+                    variables.assign(variableAssignment.name, typeOf(variableAssignment.expression));
+                    break;
+                case ASSIGN_CHECKED:
+                    VariableAssignment checked = (VariableAssignment) node;
+                    variables.assign(checked.name, typeOf(checked.expression));
+                    ErrorIndex found = globalErrors.get(checked);
+                    if (found != null) {
+                        errors.addAll(found);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /*
+     Plans the work for the node. The stack runs last in, first out, so the work is
+     pushed in reverse.
+     */
+    private void visit(ASTNode node) {
+        if (node instanceof Stylerule) {
+            Stylerule stylerule = (Stylerule) node;
+            push(LEAVE, null);
+            pushAll(stylerule.body);
+            pushAll(stylerule.selectors);
+            push(ENTER, stylerule);
+        } else if (node instanceof VariableAssignment) {
+            push(ASSIGN, node);
+            push(VISIT, ((VariableAssignment) node).expression);
+        } else if (node instanceof Declaration) {
+            Declaration declaration = (Declaration) node;
+            push(CHECK, declaration);
+            push(VISIT, declaration.expression);
+            push(VISIT, declaration.property);
+        } else if (node instanceof IfClause) {
+            IfClause ifClause = (IfClause) node;
+            if (ifClause.elseClause != null) {
+                pushScope(ifClause.elseClause, ifClause.elseClause.body);
+            }
+            pushScope(ifClause, ifClause.body);
+            push(VISIT, ifClause.conditionalExpression);
+        } else if (node instanceof Operation) {
+            Operation operation = (Operation) node;
+            push(CHECK, operation);
+            push(VISIT, operation.rhs);
+            push(VISIT, operation.lhs);
+        } else if (node instanceof VariableReference) {
+            VariableReference variableReference = (VariableReference) node;
+            ExpressionType type = variables.get(variableReference);
+            variableReference.setType(type == null ? ExpressionType.UNDEFINED : type);
+            dispatch(variableReference);
+        } else {
+            dispatch(node);
+        }
+    }
+
+    private void pushScope(ASTNode node, List<? extends ASTNode> body) {
+        push(LEAVE, null);
+        pushAll(body);
+        push(ENTER, node);
+    }
+
+    private void pushAll(List<? extends ASTNode> children) {
+        for (int i = children.size() - 1; i >= 0; i--) {
+            push(VISIT, children.get(i));
+        }
+    }
+
+    private void push(int action, ASTNode node) {
+        if (action == VISIT && node == null) return; //A child missing after a syntax error
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, 2 * size);
+            nodes = Arrays.copyOf(nodes, 2 * size);
+        }
+        actions[size] = action;
+        nodes[size] = node;
+        size++;
+    }
+
+    private void dispatch(ASTNode node) {
+        if (node instanceof Operation) {
+            ((Operation) node).setType(inferType((Operation) node));
+        }
+
+        NodeKind kind = node.getKind();
+        if (kind == null) return; //Not one of the node classes of the language, no rules
+        int[] registered = rulesByKind[kind.ordinal()];
+        for (int rule : registered) {
+            if (timed) {
+                long start = System.nanoTime();
+                rules.get(rule).check(node, this);
+                nanos[rule] += System.nanoTime() - start;
+            } else {
+                rules.get(rule).check(node, this);
+            }
+        }
+    }
+
+    private static ExpressionType typeOf(Expression expression) {
+        return expression == null ? ExpressionType.UNDEFINED : expression.getType();
+    }
+
+    /**
+     * @return the type of the operation from the types of its operands, UNDEFINED if they cannot be combined
+     */
+    private static ExpressionType inferType(Operation operation) {
+        ExpressionType lhs = typeOf(operation.lhs);
+        ExpressionType rhs = typeOf(operation.rhs);
+        if (!isNumeric(lhs) || !isNumeric(rhs)) {
+            return ExpressionType.UNDEFINED;
+        }
+
+        if (operation instanceof MultiplyOperation) {
+            if (lhs == ExpressionType.SCALAR) return rhs;
+            return rhs == ExpressionType.SCALAR ? lhs : ExpressionType.UNDEFINED;
+        }
+        if (lhs == ExpressionType.PIXEL || rhs == ExpressionType.PIXEL) {
+            //Pixels and percentages cannot be added or subtracted
+            return lhs == ExpressionType.PERCENTAGE || rhs == ExpressionType.PERCENTAGE
+                    ? ExpressionType.UNDEFINED : ExpressionType.PIXEL;
+        } else if (lhs == ExpressionType.PERCENTAGE || rhs == ExpressionType.PERCENTAGE) {
+            return ExpressionType.PERCENTAGE;
+        }
+        return ExpressionType.SCALAR;
+    }
+
+    private static boolean isNumeric(ExpressionType type) {
+        return type == ExpressionType.PIXEL || type == ExpressionType.PERCENTAGE || type == ExpressionType.SCALAR;
+    }
+}
@@ -0,0 +1,33 @@
+package nl.han.ica.icss.checker.rules;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.IfClause;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.checker.CheckContext;
+import nl.han.ica.icss.checker.CheckRule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * If clauses test a boolean.
+ */
+public class ConditionTypeRule implements CheckRule {
+
+    @Override
+    public Set<NodeKind> getKinds() {
+        return EnumSet.of(NodeKind.IF_CLAUSE);
+    }
+
+    @Override
+    public void check(ASTNode node, CheckContext context) {
+        IfClause ifClause = (IfClause) node;
+        if (ifClause.conditionalExpression == null) return;
+
+        ExpressionType type = ifClause.conditionalExpression.getType();
+        if (type != ExpressionType.BOOL && type != ExpressionType.UNDEFINED) {
+            context.report(ifClause, "If clauses must use a boolean value as conditional expression.");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package nl.han.ica.icss.checker.rules;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.checker.CheckContext;
+import nl.han.ica.icss.checker.CheckRule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Calculations are made with pixels, percentages and scalars only. Pixels and percentages
+ * cannot be added or subtracted and every multiplication needs a scalar.
+ *
+ * The engine infers the type of every operation before the rule runs, an operation it
+ * cannot give a type is an error. The rule only explains why.
+ */
+public class OperationTypeRule implements CheckRule {
+
+    @Override
+    public Set<NodeKind> getKinds() {
+        return EnumSet.of(NodeKind.ADD, NodeKind.SUBTRACT, NodeKind.MULTIPLY);
+    }
+
+    @Override
+    public void check(ASTNode node, CheckContext context) {
+        Operation operation = (Operation) node;
+        if (operation.getType() != ExpressionType.UNDEFINED) return;
+
+        ExpressionType lhs = operation.lhs == null ? ExpressionType.UNDEFINED : operation.lhs.getType();
+        ExpressionType rhs = operation.rhs == null ? ExpressionType.UNDEFINED : operation.rhs.getType();
+        if (lhs == ExpressionType.COLOR || rhs == ExpressionType.COLOR) {
+            context.report(operation, "Colors cannot be used in calculations.");
+        } else if (lhs == ExpressionType.BOOL || rhs == ExpressionType.BOOL) {
+            context.report(operation, "Booleans cannot be used in calculations.");
+        } else if (lhs == ExpressionType.UNDEFINED || rhs == ExpressionType.UNDEFINED) {
+            //An operand with an error, reported where it was found
+        } else if (operation instanceof MultiplyOperation) {
+            context.report(operation, "Multiply operations require at least 1 scalar.");
+        } else {
+            context.report(operation, "Calculating with pixels and percentages is not possible.");
+        }
+    }
+}
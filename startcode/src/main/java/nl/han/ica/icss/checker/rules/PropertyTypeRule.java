@@ -0,0 +1,67 @@
+package nl.han.ica.icss.checker.rules;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.checker.CheckContext;
+import nl.han.ica.icss.checker.CheckRule;
+
+import java.util.*;
+
+/**
+ * Declarations set known properties to values of a type the property accepts.
+ */
+public class PropertyTypeRule implements CheckRule {
+    private static final Map<String, List<ExpressionType>> PROPERTY_TYPES = createPropertyTypes();
+
+    private static Map<String, List<ExpressionType>> createPropertyTypes() {
+        Map<String, List<ExpressionType>> types = new HashMap<>();
+        List<ExpressionType> colors = Collections.singletonList(
+                ExpressionType.COLOR
+        );
+        List<ExpressionType> width = Arrays.asList(
+                ExpressionType.PERCENTAGE,
+                ExpressionType.PIXEL,
+                ExpressionType.SCALAR
+        );
+        types.put("color", colors);
+        types.put("background-color", colors);
+        types.put("width", width);
+        types.put("height", width);
+        return Collections.unmodifiableMap(types);
+    }
+
+    @Override
+    public Set<NodeKind> getKinds() {
+        return EnumSet.of(NodeKind.DECLARATION);
+    }
+
+    @Override
+    public void check(ASTNode node, CheckContext context) {
+        Declaration declaration = (Declaration) node;
+        ExpressionType type = declaration.expression == null ? ExpressionType.UNDEFINED : declaration.expression.getType();
+        List<ExpressionType> expressionType = PROPERTY_TYPES.get(declaration.property.name);
+
+        if (expressionType == null) {
+            context.report(declaration, "Property " + declaration.property.name + " does not exist.");
+        } else if (type != ExpressionType.UNDEFINED && !expressionType.contains(type)) {
+            context.report(declaration, "Property " + declaration.property.name + " does not accept " + describe(type) + " as value.");
+        }
+    }
+
+    private static String describe(ExpressionType type) {
+        switch (type) {
+            case PIXEL:
+                return "pixels";
+            case PERCENTAGE:
+                return "percentages";
+            case SCALAR:
+                return "scalars";
+            case COLOR:
+                return "colors";
+            default:
+                return "booleans";
+        }
+    }
+}
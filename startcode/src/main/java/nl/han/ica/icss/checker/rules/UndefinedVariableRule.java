@@ -0,0 +1,29 @@
+package nl.han.ica.icss.checker.rules;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.checker.CheckContext;
+import nl.han.ica.icss.checker.CheckRule;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Variables must be assigned before they are used, in the scope of the reference or one around it.
+ */
+public class UndefinedVariableRule implements CheckRule {
+
+    @Override
+    public Set<NodeKind> getKinds() {
+        return EnumSet.of(NodeKind.VARIABLE_REFERENCE);
+    }
+
+    @Override
+    public void check(ASTNode node, CheckContext context) {
+        VariableReference variableReference = (VariableReference) node;
+        if (context.getVariableType(variableReference) == null) {
+            context.report(variableReference, variableReference.name + " is undefined.");
+        }
+    }
+}
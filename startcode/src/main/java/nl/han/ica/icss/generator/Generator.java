@@ -2,29 +2,115 @@ package nl.han.ica.icss.generator;
 
 
 import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.arena.ArenaAST;
 import nl.han.ica.icss.ast.literals.ColorLiteral;
 import nl.han.ica.icss.ast.literals.PercentageLiteral;
 import nl.han.ica.icss.ast.literals.PixelLiteral;
 import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.parallel.RuleParallelism;
 
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class Generator {
-    private StringBuilder stringBuilder;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private Appendable out;
+    private RuleParallelism parallelism = RuleParallelism.SEQUENTIAL;
+
+    /**
+     * Generates the css of the stylerules of large stylesheets in parallel, in a buffer
+     * for every range of stylerules. The buffers are appended to the output in order.
+     */
+    public void setParallelism(RuleParallelism parallelism) {
+        this.parallelism = parallelism;
+    }
 
     public String generate(AST ast) {
-        stringBuilder = new StringBuilder();
-        traverse(ast.root);
-        return stringBuilder.toString();
+        StringBuilder builder = new StringBuilder();
+        try {
+            generate(ast, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("StringBuilder does not throw", e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends the css to the output as it is generated.
+     */
+    public void generate(AST ast, Appendable output) throws IOException {
+        out = output;
+        try {
+            traverse(ast.root);
+        } finally {
+            out = null;
+        }
+    }
+
+    /**
+     * Writes the css through a buffer of bounded size. The writer is flushed, not closed.
+     */
+    public void generate(AST ast, Writer writer) throws IOException {
+        Writer buffered = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, BUFFER_SIZE);
+        generate(ast, (Appendable) buffered);
+        buffered.flush();
+    }
+
+    /**
+     * Writes the css encoded as UTF-8. The stream is flushed, not closed.
+     */
+    public void generate(AST ast, OutputStream output) throws IOException {
+        generate(ast, new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the css encoded as UTF-8. The channel is left open.
+     */
+    public void generate(AST ast, WritableByteChannel channel) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+        generate(ast, (Appendable) writer);
+        writer.flush();
+    }
+
+    /**
+     * Generates the css of an evaluated stylesheet stored in an arena, reading the arena
+     * directly instead of building the object tree.
+     */
+    public String generate(ArenaAST arena) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            generate(arena, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("StringBuilder does not throw", e);
+        }
+        return builder.toString();
     }
 
-    private void traverse(List<ASTNode> nodes) {
+    public void generate(ArenaAST arena, Appendable output) throws IOException {
+        out = output;
+        try {
+            for (int i = 0; i < arena.childCount(0); i++) {
+                int node = arena.childAt(0, i);
+                if (arena.kind(node) == NodeKind.STYLERULE) {
+                    generateStylerule(arena, node);
+                }
+            }
+        } finally {
+            out = null;
+        }
+    }
+
+    private void traverse(List<ASTNode> nodes) throws IOException {
         for (ASTNode node : nodes) {
             traverse(node);
         }
     }
 
-    private void traverse(ASTNode node) {
+    private void traverse(ASTNode node) throws IOException {
         if (node instanceof Stylesheet) {
             generateStyleSheet((Stylesheet) node);
         } else if (node instanceof Stylerule) {
@@ -34,44 +120,107 @@ public class Generator {
         }
     }
 
-    private void generateStyleSheet(Stylesheet stylesheet) {
-        traverse(stylesheet.body);
+    private void generateStyleSheet(Stylesheet stylesheet) throws IOException {
+        List<ASTNode> body = stylesheet.body;
+        int[] bounds = parallelism.split(body.size());
+        if (bounds.length == 2) {
+            traverse(body);
+            return;
+        }
+
+        List<StringBuilder> buffers = parallelism.map(bounds, (range, from, to) -> {
+            StringBuilder buffer = new StringBuilder();
+            Generator generator = new Generator();
+            generator.out = buffer;
+            try {
+                generator.traverse(body.subList(from, to));
+            } catch (IOException e) {
+                throw new UncheckedIOException("StringBuilder does not throw", e);
+            }
+            return buffer;
+        });
+        for (StringBuilder buffer : buffers) {
+            out.append(buffer);
+        }
     }
 
-    private void generateStylerule(Stylerule stylerule) {
-        stringBuilder.append(stylerule.selectors.get(0).toString());
-        stringBuilder.append(" {\n");
+    private void generateStylerule(Stylerule stylerule) throws IOException {
+        out.append(stylerule.selectors.get(0).toString());
+        out.append(" {\n");
 
-        for (int i = 0; i < stylerule.getChildren().size(); i++) {
-            ASTNode node = stylerule.getChildren().get(i);
+        int count = stylerule.childCount();
+        for (int i = 0; i < count; i++) {
+            ASTNode node = stylerule.childAt(i);
             if (node instanceof Declaration) {
                 traverse(node);
-                if (i < stylerule.getChildren().size() - 1) stringBuilder.append('\n');
+                if (i < count - 1) out.append('\n');
             }
         }
-        stringBuilder.append("\n}");
-        stringBuilder.append('\n');
-        stringBuilder.append('\n');
+        out.append("\n}");
+        out.append('\n');
+        out.append('\n');
     }
 
-    private void generateDeclaration(Declaration declaration) {
-        stringBuilder.append(' ');
-        stringBuilder.append(' ');
-        stringBuilder.append(declaration.property.name);
-        stringBuilder.append(": ");
-        stringBuilder.append(getValue(declaration.expression));
-        stringBuilder.append(';');
+    private void generateDeclaration(Declaration declaration) throws IOException {
+        out.append(' ');
+        out.append(' ');
+        out.append(declaration.property.name);
+        out.append(": ");
+        appendValue(declaration.expression);
+        out.append(';');
     }
 
-    private String getValue(Expression expression) {
+    private void appendValue(Expression expression) throws IOException {
         if (expression instanceof PixelLiteral) {
-            return ((PixelLiteral) expression).value + "px";
+            out.append(String.valueOf(((PixelLiteral) expression).value)).append("px");
         } else if (expression instanceof PercentageLiteral) {
-            return ((PercentageLiteral) expression).value + "%";
+            out.append(String.valueOf(((PercentageLiteral) expression).value)).append('%');
         } else if (expression instanceof ColorLiteral) {
-            return String.valueOf(((ColorLiteral) expression).value);
+            out.append(((ColorLiteral) expression).getText());
         } else {
-            return String.valueOf(((ScalarLiteral) expression).value);
+            out.append(String.valueOf(((ScalarLiteral) expression).value));
+        }
+    }
+
+    private void generateStylerule(ArenaAST arena, int stylerule) throws IOException {
+        //The first child is the selector, its name includes the . or #
+        out.append(arena.name(arena.childAt(stylerule, 0)));
+        out.append(" {\n");
+
+        int count = arena.childCount(stylerule);
+        for (int i = 0; i < count; i++) {
+            int node = arena.childAt(stylerule, i);
+            if (arena.kind(node) == NodeKind.DECLARATION) {
+                out.append(' ');
+                out.append(' ');
+                out.append(arena.name(arena.childAt(node, 0)));
+                out.append(": ");
+                appendValue(arena, arena.childAt(node, 1));
+                out.append(';');
+                if (i < count - 1) out.append('\n');
+            }
+        }
+        out.append("\n}");
+        out.append('\n');
+        out.append('\n');
+    }
+
+    private void appendValue(ArenaAST arena, int expression) throws IOException {
+        switch (arena.kind(expression)) {
+            case PIXEL:
+                out.append(String.valueOf(arena.value(expression))).append("px");
+                break;
+            case PERCENTAGE:
+                out.append(String.valueOf(arena.value(expression))).append('%');
+                break;
+            case COLOR:
+                out.append(ColorLiteral.of(arena.value(expression)).getText());
+                break;
+            case SCALAR:
+                out.append(String.valueOf(arena.value(expression)));
+                break;
+            default:
+                throw new IllegalArgumentException(arena.kind(expression) + " is not a value, evaluate the stylesheet first");
         }
     }
 }
@@ -9,6 +9,9 @@ import javafx.scene.layout.BorderPane;
 import nl.han.ica.icss.ast.AST;
 import nl.han.ica.icss.ast.ASTNode;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 public class ASTPane extends BorderPane {
 
     private TreeView<ASTNode> content;
@@ -52,12 +55,22 @@ public class ASTPane extends BorderPane {
     }
     private TreeItem<ASTNode> astNodeToTreeItem(ASTNode astNode) {
 
-        TreeItem<ASTNode> tvNode = new TreeItem<ASTNode>(astNode);
-        tvNode.setExpanded(true);
+        TreeItem<ASTNode> root = new TreeItem<ASTNode>(astNode);
+        root.setExpanded(true);
 
-        for(ASTNode child : astNode.getChildren()) {
-            tvNode.getChildren().add(astNodeToTreeItem(child));
+        //Explicit stack instead of recursion, deep trees would overflow the thread stack
+        Deque<TreeItem<ASTNode>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while(!pending.isEmpty()) {
+            TreeItem<ASTNode> tvNode = pending.pop();
+            ASTNode node = tvNode.getValue();
+            for(int i = 0; i < node.childCount(); i++) {
+                TreeItem<ASTNode> child = new TreeItem<ASTNode>(node.childAt(i));
+                child.setExpanded(true);
+                tvNode.getChildren().add(child);
+                pending.push(child);
+            }
         }
-        return tvNode;
+        return root;
     }
 }
@@ -2,7 +2,7 @@ package nl.han.ica.icss.gui;
 
 
 import java.io.*;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.stream.Collectors;
 
@@ -31,7 +31,7 @@ public class InputPane extends BorderPane {
 	}
 	public void setText(File file) {
 		try {
-			this.setText(new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()));
+			this.setText(Files.readString(file.toPath(), StandardCharsets.UTF_8));
 		} catch (IOException e) {
 			System.err.println(e);
 		}
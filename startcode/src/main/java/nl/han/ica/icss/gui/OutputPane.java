@@ -1,8 +1,8 @@
 package nl.han.ica.icss.gui;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import javafx.geometry.Insets;
 import javafx.scene.control.Label;
@@ -35,9 +35,7 @@ public class OutputPane extends BorderPane {
 	}
 	public void writeToFile(File file) {
 		try {
-			PrintStream out = new PrintStream(new FileOutputStream(file));
-			out.print(this.getText());
-			out.close();
+			Files.writeString(file.toPath(), this.getText(), StandardCharsets.UTF_8);
 		} catch(Exception exception) {
 			System.err.println(exception);
 		}
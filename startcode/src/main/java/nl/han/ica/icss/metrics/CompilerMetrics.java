@@ -0,0 +1,230 @@
+package nl.han.ica.icss.metrics;
+
+import nl.han.ica.icss.Stage;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.parser.SourceParser;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide compiler metrics, published as platform MBeans under
+ * {@value #DOMAIN}:type=CompilerMetrics.
+ *
+ * Metrics are only collected when the JVM is started with -D{@value #ENABLED_PROPERTY}=true.
+ * Callers check {@link #isEnabled()} before measuring anything, which the JIT folds
+ * to a constant, so disabled metrics cost nothing but that check.
+ */
+public class CompilerMetrics implements CompilerMetricsMBean {
+    public static final String ENABLED_PROPERTY = "icss.metrics";
+    public static final String DOMAIN = "nl.han.ica.icss";
+
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private final Map<Stage, StageMetrics> stages;
+    private final LatencyHistogram latencies;
+    private final LongAdder failedCompilations;
+    private final LongAdder errors;
+    private final LongAdder nodes;
+    private final LongAdder bytesGenerated;
+    private volatile long startNanos;
+
+    CompilerMetrics() {
+        stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new StageMetrics());
+        }
+        latencies = new LatencyHistogram();
+        failedCompilations = new LongAdder();
+        errors = new LongAdder();
+        nodes = new LongAdder();
+        bytesGenerated = new LongAdder();
+        startNanos = System.nanoTime();
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the metrics of this process, registered with the platform MBean server on first use
+     */
+    public static CompilerMetrics get() {
+        return Holder.INSTANCE;
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    /**
+     * Records a complete compilation, from source to css or the first stage with errors.
+     */
+    public void recordCompilation(long nanos, int errorCount) {
+        latencies.record(nanos);
+        recordErrors(errorCount);
+        if (errorCount > 0) {
+            failedCompilations.increment();
+        }
+    }
+
+    public void recordErrors(int count) {
+        errors.add(count);
+    }
+
+    public void recordNodes(AST ast) {
+        if (ast.root == null) {
+            return;
+        }
+        long count = 0;
+        Deque<ASTNode> pending = new ArrayDeque<>();
+        pending.push(ast.root);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.pop();
+            count++;
+            for (int i = 0; i < node.childCount(); i++) {
+                pending.push(node.childAt(i));
+            }
+        }
+        nodes.add(count);
+    }
+
+    public void recordBytesGenerated(long count) {
+        bytesGenerated.add(count);
+    }
+
+    /**
+     * @return the size of the text encoded as UTF-8, counted without encoding it
+     */
+    public static long utf8Length(CharSequence text) {
+        long bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                //Four bytes for the pair
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+            //A lone surrogate is encoded as one replacement byte
+        }
+        return bytes;
+    }
+
+    public StageMetrics getStage(Stage stage) {
+        return stages.get(stage);
+    }
+
+    @Override
+    public long getCompilations() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getFailedCompilations() {
+        return failedCompilations.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBytesGenerated() {
+        return bytesGenerated.sum();
+    }
+
+    @Override
+    public long getParses() {
+        return SourceParser.getParseCount();
+    }
+
+    @Override
+    public long getParseFallbacks() {
+        return SourceParser.getFallbackCount();
+    }
+
+    @Override
+    public double getCompilationsPerSecond() {
+        return perSecond(getCompilations());
+    }
+
+    @Override
+    public double getBytesGeneratedPerSecond() {
+        return perSecond(getBytesGenerated());
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.getPercentile(50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public void reset() {
+        for (StageMetrics stage : stages.values()) {
+            stage.reset();
+        }
+        latencies.reset();
+        failedCompilations.reset();
+        errors.reset();
+        nodes.reset();
+        bytesGenerated.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private double perSecond(long count) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : count / (elapsed / 1_000_000_000.0);
+    }
+
+    private static CompilerMetrics register(CompilerMetrics metrics) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(metrics, new ObjectName(DOMAIN + ":type=CompilerMetrics"));
+            for (Stage stage : Stage.values()) {
+                server.registerMBean(metrics.getStage(stage), new ObjectName(
+                        DOMAIN + ":type=CompilerMetrics,stage=" + stage.name().toLowerCase()));
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            //Published by a copy of the compiler in another class loader
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register compiler metrics", e);
+        }
+        return metrics;
+    }
+
+    private static class Holder {
+        static final CompilerMetrics INSTANCE = register(new CompilerMetrics());
+    }
+}
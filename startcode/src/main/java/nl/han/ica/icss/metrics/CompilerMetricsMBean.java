@@ -0,0 +1,39 @@
+package nl.han.ica.icss.metrics;
+
+/**
+ * Totals over all compilations since the process started or the metrics were reset.
+ * Latencies of the separate stages are published as {@link StageMetricsMBean}s.
+ */
+public interface CompilerMetricsMBean {
+    long getCompilations();
+
+    long getFailedCompilations();
+
+    long getErrors();
+
+    long getNodes();
+
+    long getBytesGenerated();
+
+    /**
+     * @return parses since the process started, also counted while metrics are disabled
+     */
+    long getParses();
+
+    /**
+     * @return parses that had to be repeated with full LL prediction
+     */
+    long getParseFallbacks();
+
+    double getCompilationsPerSecond();
+
+    double getBytesGeneratedPerSecond();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+
+    void reset();
+}
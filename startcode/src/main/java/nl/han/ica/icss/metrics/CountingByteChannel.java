@@ -0,0 +1,38 @@
+package nl.han.ica.icss.metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Passes writes on to another channel, counting the bytes written.
+ */
+public class CountingByteChannel implements WritableByteChannel {
+    private final WritableByteChannel channel;
+    private long count;
+
+    public CountingByteChannel(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        int written = channel.write(source);
+        count += written;
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,38 @@
+package nl.han.ica.icss.metrics;
+
+public class StageMetrics implements StageMetricsMBean {
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    void record(long nanos) {
+        latencies.record(nanos);
+    }
+
+    void reset() {
+        latencies.reset();
+    }
+
+    @Override
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.getPercentile(50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+}
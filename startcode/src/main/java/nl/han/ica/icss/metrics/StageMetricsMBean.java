@@ -0,0 +1,16 @@
+package nl.han.ica.icss.metrics;
+
+/**
+ * Latencies of one compiler stage, in nanoseconds.
+ */
+public interface StageMetricsMBean {
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+}
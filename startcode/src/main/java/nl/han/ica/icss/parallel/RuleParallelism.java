@@ -0,0 +1,130 @@
+package nl.han.ica.icss.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * How a pass spreads the top-level nodes of a stylesheet over a fork-join pool.
+ *
+ * The body of the stylesheet is split into ranges of consecutive nodes. Every range is
+ * passed by a task with its own state, seeded with the global variables assigned before
+ * the range, and the results of the tasks are combined in source order. A stylesheet
+ * with fewer top-level nodes than twice the threshold is one range, passed on the calling
+ * thread, so small stylesheets do not pay for the tasks.
+ *
+ * The tasks of a pass run the same rules on different stylerules at the same time, so
+ * anything a pass shares between them, like the rules of the checker, must be safe to
+ * use from several threads.
+ */
+public final class RuleParallelism {
+    /**
+     * Top-level nodes of a task, enough to outweigh the cost of forking it.
+     */
+    public static final int DEFAULT_THRESHOLD = 256;
+
+    public static final RuleParallelism SEQUENTIAL = new RuleParallelism(null, Integer.MAX_VALUE);
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param pool      pool to run the tasks on
+     * @param threshold smallest number of top-level nodes a task passes
+     */
+    public RuleParallelism(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1, got " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public RuleParallelism(ForkJoinPool pool) {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param size number of top-level nodes
+     * @return the start of every range followed by the size, one range if the nodes are passed sequentially
+     */
+    public int[] split(int size) {
+        int ranges = pool == null ? 1 : Math.max(1, size / threshold);
+        int[] bounds = new int[ranges + 1];
+        for (int range = 1; range <= ranges; range++) {
+            bounds[range] = (int) ((long) size * range / ranges);
+        }
+        return bounds;
+    }
+
+    /**
+     * Work on one range of top-level nodes.
+     *
+     * @param <R> the result of the range
+     */
+    public interface RangeTask<R> {
+        R run(int range, int from, int to);
+    }
+
+    /**
+     * Runs the task for every range of the bounds, on the pool if there is more than one.
+     *
+     * @param bounds ranges as returned by {@link #split(int)}
+     * @return the results of the ranges, in order
+     */
+    public <R> List<R> map(int[] bounds, RangeTask<R> task) {
+        Object[] results = new Object[bounds.length - 1];
+        if (results.length == 1) {
+            results[0] = task.run(0, bounds[0], bounds[1]);
+        } else {
+            pool.invoke(new Ranges<>(bounds, 0, results.length, task, results));
+        }
+
+        List<R> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            R r = (R) result;
+            list.add(r);
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return pool == null ? "sequential" : "parallelism " + pool.getParallelism() + ", threshold " + threshold;
+    }
+
+    /**
+     * Runs the ranges first to last of the bounds, splitting them in halves.
+     */
+    private static class Ranges<R> extends RecursiveAction {
+        //Serializable through ForkJoinTask, but never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final int[] bounds;
+        private final int first;
+        private final int last;
+        private final RangeTask<R> task;
+        private final Object[] results;
+
+        Ranges(int[] bounds, int first, int last, RangeTask<R> task, Object[] results) {
+            this.bounds = bounds;
+            this.first = first;
+            this.last = last;
+            this.task = task;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                results[first] = task.run(first, bounds[first], bounds[first + 1]);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new Ranges<>(bounds, first, middle, task, results),
+                    new Ranges<>(bounds, middle, last, task, results));
+        }
+    }
+}
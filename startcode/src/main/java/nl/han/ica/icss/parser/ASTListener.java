@@ -14,11 +14,22 @@ import nl.han.ica.icss.ast.selectors.TagSelector;
 import nl.han.ica.icss.gen.ICSSBaseListener;
 import nl.han.ica.icss.gen.ICSSParser;
 
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * This class extracts the ICSS Abstract Syntax Tree from the Antlr Parse tree.
+ *
+ * Nodes are created from the first token of their rule, which is known when the rule
+ * is entered, and from the tokens of the rule itself, never from its sub rules. So the
+ * listener can be walked over a parse tree as well as attached to a parser that does
+ * not build one, see {@link SourceParser}.
  */
 public class ASTListener extends ICSSBaseListener {
 
@@ -28,6 +39,9 @@ public class ASTListener extends ICSSBaseListener {
     //Use this to keep track of the parent nodes when recursively traversing the ast
     private final IHANStack<ASTNode> currentContainer;
 
+    //Operands of the calculations and terms being parsed, until they are combined into operations
+    private final IHANStack<List<Expression>> currentOperands;
+
     // Use to keep track of key values for variables
     Map<String, VariableReference> variables;
 
@@ -36,6 +50,7 @@ public class ASTListener extends ICSSBaseListener {
         ast = new AST();
 
         currentContainer = new HANStack<>(10);
+        currentOperands = new HANStack<>(2);
 
         variables = new HashMap<>();
     }
@@ -53,7 +68,7 @@ public class ASTListener extends ICSSBaseListener {
     @Override
     public void exitStylerule(ICSSParser.StyleruleContext ctx) {
         Stylerule rule = (Stylerule) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(rule));
+        currentContainer.peek().addChild(rule);
     }
 
     @Override
@@ -61,179 +76,139 @@ public class ASTListener extends ICSSBaseListener {
         currentContainer.push(new Stylerule());
     }
 
-    @Override
-    public void exitSelector(ICSSParser.SelectorContext ctx) {
-        Selector selector = (Selector) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(selector));
-    }
-
     @Override
     public void enterSelector(ICSSParser.SelectorContext ctx) {
-        Selector selector;
-
-        if (ctx.CLASS_IDENT() != null) {
-            selector = new ClassSelector(ctx.getText());
-        } else if (ctx.ID_IDENT() != null) {
-            selector = new IdSelector(ctx.getText());
-        } else {
-            selector = new TagSelector(ctx.getText());
+        Token token = ctx.getStart();
+
+        if (token.getType() == ICSSParser.CLASS_IDENT) {
+            currentContainer.peek().addChild(new ClassSelector(token.getText()));
+        } else if (token.getType() == ICSSParser.ID_IDENT) {
+            currentContainer.peek().addChild(new IdSelector(token.getText()));
+        } else if (token.getType() == ICSSParser.LOWER_IDENT) {
+            currentContainer.peek().addChild(new TagSelector(token.getText()));
         }
-        currentContainer.push(selector);
     }
 
     @Override
     public void exitDeclaration(ICSSParser.DeclarationContext ctx) {
         Declaration declaration = (Declaration) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(declaration));
+        currentContainer.peek().addChild(declaration);
     }
 
     @Override
     public void enterDeclaration(ICSSParser.DeclarationContext ctx) {
-        currentContainer.push(new Declaration(ctx.property().getText()));
-    }
-
-    @Override
-    public void exitValue(ICSSParser.ValueContext ctx) {
-        Literal literal = (Literal) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(literal));
+        //A declaration starts with its property
+        currentContainer.push(new Declaration(ctx.getStart().getText()));
     }
 
     @Override
-    public void enterValue(ICSSParser.ValueContext ctx) {
-        Literal literal;
-
-        if (ctx.PIXELSIZE() != null) {
-            literal = new PixelLiteral(ctx.getText());
-        } else if (ctx.PERCENTAGE() != null) {
-            literal = new PercentageLiteral(ctx.getText());
-        } else {
-            literal = new ColorLiteral(ctx.getText());
+    public void enterColor(ICSSParser.ColorContext ctx) {
+        if (isAt(ctx, ICSSParser.COLOR)) {
+            addExpression(ColorLiteral.of(ctx.getStart().getText()));
         }
-        currentContainer.push(literal);
     }
 
     @Override
     public void exitVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
         VariableAssignment variableAssignment = (VariableAssignment) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(variableAssignment));
+        currentContainer.peek().addChild(variableAssignment);
     }
 
     @Override
     public void enterVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
-        VariableReference variableReference = new VariableReference(ctx.CAPITAL_IDENT().getText());
+        //An assignment starts with the name of its variable
         VariableAssignment variableAssignment = new VariableAssignment();
-        variableAssignment.name = variableReference;
-        variableReference.name = ctx.CAPITAL_IDENT().getText();
+        variableAssignment.addChild(new VariableReference(ctx.getStart().getText()));
 
         currentContainer.push(variableAssignment);
     }
 
-    @Override
-    public void exitVariableValue(ICSSParser.VariableValueContext ctx) {
-        if (currentContainer.peek() instanceof Literal) {
-            Literal literal = (Literal) currentContainer.pop();
-            currentContainer.push(currentContainer.pop().addChild(literal));
-        }
-    }
-
     @Override
     public void enterVariableValue(ICSSParser.VariableValueContext ctx) {
-        Literal literal = null;
-
-        if (ctx.FALSE() != null || ctx.TRUE() != null) {
-            literal = new BoolLiteral(ctx.getText());
+        if (isAt(ctx, ICSSParser.TRUE) || isAt(ctx, ICSSParser.FALSE)) {
+            addExpression(BoolLiteral.of(ctx.getStart().getText()));
         }
-        if (literal != null) currentContainer.push(literal);
-    }
-
-    @Override
-    public void exitVariableReference(ICSSParser.VariableReferenceContext ctx) {
-        VariableReference variableReference = (VariableReference) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(variableReference));
     }
 
     @Override
     public void enterVariableReference(ICSSParser.VariableReferenceContext ctx) {
-        currentContainer.push(new VariableReference(ctx.CAPITAL_IDENT().getText()));
+        if (isAt(ctx, ICSSParser.CAPITAL_IDENT)) {
+            addExpression(new VariableReference(ctx.getStart().getText()));
+        }
     }
 
     @Override
-    public void exitPixelCalculation(ICSSParser.PixelCalculationContext ctx) {
-        Operation operation = (Operation) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(operation));
-    }
+    public void exitCalculation(ICSSParser.CalculationContext ctx) {
+        List<Expression> terms = currentOperands.pop();
+        if (terms.isEmpty()) return; //Syntax error, reported by the parser
 
-    @Override
-    public void enterPixelCalculation(ICSSParser.PixelCalculationContext ctx) {
-        Operation operation;
+        //Fold the terms from left to right, in the order of the + and - tokens between them
+        Expression result = terms.get(0);
+        int next = 1;
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            if (!(ctx.getChild(i) instanceof TerminalNode) || next == terms.size()) continue;
 
-        if (ctx.MUL() != null) {
-            operation = new MultiplyOperation();
-        } else if (ctx.PLUS() != null) {
-            operation = new AddOperation();
-        } else {
-            operation = new SubtractOperation();
+            int type = ((TerminalNode) ctx.getChild(i)).getSymbol().getType();
+            if (type == ICSSParser.PLUS || type == ICSSParser.MIN) {
+                Operation operation = type == ICSSParser.PLUS ? new AddOperation() : new SubtractOperation();
+                operation.addChild(result);
+                operation.addChild(terms.get(next++));
+                result = operation;
+            }
         }
-        currentContainer.push(operation);
+        addExpression(result);
     }
 
     @Override
-    public void exitPercentageCalculation(ICSSParser.PercentageCalculationContext ctx) {
-        Operation operation = (Operation) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(operation));
+    public void enterCalculation(ICSSParser.CalculationContext ctx) {
+        currentOperands.push(new ArrayList<>());
     }
 
     @Override
-    public void enterPercentageCalculation(ICSSParser.PercentageCalculationContext ctx) {
-        Operation operation;
+    public void exitTerm(ICSSParser.TermContext ctx) {
+        List<Expression> operands = currentOperands.pop();
+        if (operands.isEmpty()) return; //Syntax error, reported by the parser
 
-        if (ctx.MUL() != null) {
-            operation = new MultiplyOperation();
-        } else if (ctx.PLUS() != null) {
-            operation = new AddOperation();
-        } else {
-            operation = new SubtractOperation();
+        Expression result = operands.get(0);
+        for (int i = 1; i < operands.size(); i++) {
+            Operation operation = new MultiplyOperation();
+            operation.addChild(result);
+            operation.addChild(operands.get(i));
+            result = operation;
         }
-        currentContainer.push(operation);
+        addExpression(result);
     }
 
     @Override
-    public void exitScalar(ICSSParser.ScalarContext ctx) {
-        ScalarLiteral scalarLiteral = (ScalarLiteral) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(scalarLiteral));
+    public void enterTerm(ICSSParser.TermContext ctx) {
+        currentOperands.push(new ArrayList<>());
     }
 
     @Override
     public void enterScalar(ICSSParser.ScalarContext ctx) {
-        currentContainer.push(new ScalarLiteral(ctx.SCALAR().getText()));
-    }
-
-    @Override
-    public void exitPixel(ICSSParser.PixelContext ctx) {
-        PixelLiteral pixelLiteral = (PixelLiteral) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(pixelLiteral));
+        if (isAt(ctx, ICSSParser.SCALAR)) {
+            addExpression(ScalarLiteral.of(ctx.getStart().getText()));
+        }
     }
 
     @Override
     public void enterPixel(ICSSParser.PixelContext ctx) {
-        currentContainer.push(new PixelLiteral(ctx.PIXELSIZE().getText()));
-    }
-
-    @Override
-    public void exitPercent(ICSSParser.PercentContext ctx) {
-        PercentageLiteral percentageLiteral = (PercentageLiteral) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(percentageLiteral));
+        if (isAt(ctx, ICSSParser.PIXELSIZE)) {
+            addExpression(PixelLiteral.of(ctx.getStart().getText()));
+        }
     }
 
     @Override
     public void enterPercent(ICSSParser.PercentContext ctx) {
-        currentContainer.push(new PercentageLiteral(ctx.PERCENTAGE().getText()));
+        if (isAt(ctx, ICSSParser.PERCENTAGE)) {
+            addExpression(PercentageLiteral.of(ctx.getStart().getText()));
+        }
     }
 
     @Override
     public void exitIf_clause(ICSSParser.If_clauseContext ctx) {
         IfClause ifClause = (IfClause) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(ifClause));
+        currentContainer.peek().addChild(ifClause);
     }
 
     @Override
@@ -244,7 +219,7 @@ public class ASTListener extends ICSSBaseListener {
     @Override
     public void exitElse_clause(ICSSParser.Else_clauseContext ctx) {
         ElseClause elseClause = (ElseClause) currentContainer.pop();
-        currentContainer.push(currentContainer.pop().addChild(elseClause));
+        currentContainer.peek().addChild(elseClause);
     }
 
     @Override
@@ -255,4 +230,24 @@ public class ASTListener extends ICSSBaseListener {
     public AST getAST() {
         return ast;
     }
+
+    /**
+     * @return true if the rule starts at a token of the given type. A rule can start elsewhere
+     * while the parser recovers from a syntax error.
+     */
+    private static boolean isAt(ParserRuleContext ctx, int tokenType) {
+        return ctx.getStart() != null && ctx.getStart().getType() == tokenType;
+    }
+
+    /**
+     * Adds the expression to the calculation or term being parsed, or else to the current container.
+     * Calculations contain no containers, so while one is open its operands come first.
+     */
+    private void addExpression(Expression expression) {
+        if (currentOperands.size() > 0) {
+            currentOperands.peek().add(expression);
+        } else {
+            currentContainer.peek().addChild(expression);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A character stream that reads straight from a byte buffer holding single byte
+ * characters. ICSS consists of ASCII only, so a UTF-8 encoded (and possibly memory
+ * mapped) stylesheet can be lexed without copying it into a String or char array.
+ *
+ * Use {@link SourceStreams} to create streams; it falls back to decoding when the
+ * input contains multi-byte characters.
+ */
+public class ByteBufferCharStream implements CharStream {
+    private final ByteBuffer buffer;
+    private final int size;
+    private final String name;
+    private int position = 0;
+
+    public ByteBufferCharStream(ByteBuffer buffer, String name) {
+        this.buffer = buffer.slice();
+        this.size = this.buffer.remaining();
+        this.name = name;
+    }
+
+    @Override
+    public void consume() {
+        if (position == size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        position++;
+    }
+
+    @Override
+    public int LA(int i) {
+        int offset;
+        if (i > 0) {
+            offset = position + i - 1;
+            if (offset >= size) return IntStream.EOF;
+        } else if (i < 0) {
+            offset = position + i;
+            if (offset < 0) return IntStream.EOF;
+        } else {
+            return 0;
+        }
+        return buffer.get(offset) & 0xff;
+    }
+
+    @Override
+    public int mark() {
+        //The whole buffer stays available, so there is nothing to mark
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return position;
+    }
+
+    /**
+     * Moves to the index, clamped to the start and end of the stream.
+     */
+    @Override
+    public void seek(int index) {
+        position = Math.max(0, Math.min(index, size));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return name == null || name.isEmpty() ? IntStream.UNKNOWN_SOURCE_NAME : name;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.min(interval.a, size);
+        int length = Math.min(interval.b - interval.a + 1, size - start);
+
+        char[] text = new char[Math.max(length, 0)];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (char) (buffer.get(start + i) & 0xff);
+        }
+        return new String(text);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+}
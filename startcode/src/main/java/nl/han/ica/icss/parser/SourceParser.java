@@ -0,0 +1,109 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.gen.ICSSLexer;
+import nl.han.ica.icss.gen.ICSSParser;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lexes and parses ICSS source into an AST. A SourceParser holds no state between
+ * calls, so a single instance can be shared by multiple threads.
+ *
+ * By default the input is first parsed with SLL prediction, which is much cheaper
+ * than full LL but gives up on some inputs. If it gives up, or the input has syntax
+ * errors, the input is parsed again with full LL prediction and the normal error
+ * recovery. Both paths give the same AST and report the same errors. The counters of
+ * the class show how often the second parse was needed.
+ *
+ * No parse tree is built. The {@link ASTListener} is attached to the parser and builds
+ * the AST while the rules are being parsed.
+ */
+public class SourceParser {
+    private static final LongAdder PARSES = new LongAdder();
+    private static final LongAdder FALLBACKS = new LongAdder();
+
+    private final boolean sllFirst;
+
+    public SourceParser() {
+        this(true);
+    }
+
+    /**
+     * @param sllFirst false to always parse with full LL prediction
+     */
+    public SourceParser(boolean sllFirst) {
+        this.sllFirst = sllFirst;
+    }
+
+    /**
+     * @return number of parses in this process, over all instances
+     */
+    public static long getParseCount() {
+        return PARSES.sum();
+    }
+
+    /**
+     * @return number of parses in this process that had to be repeated with full LL prediction
+     */
+    public static long getFallbackCount() {
+        return FALLBACKS.sum();
+    }
+
+    /**
+     * Parses the input and extracts the AST. Syntax errors are reported to the given listener.
+     *
+     * @throws org.antlr.v4.runtime.RecognitionException            if the parser gives up on the input
+     * @throws org.antlr.v4.runtime.misc.ParseCancellationException if the error strategy cancels the parse
+     */
+    public AST parse(CharStream input, ANTLRErrorListener errorListener) {
+        PARSES.increment();
+
+        //Lex (with Antlr's generated lexer)
+        ICSSLexer lexer = new ICSSLexer(input);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorListener);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+
+        //Parse (with Antlr's generated parser), building the AST as rules are recognized
+        ICSSParser parser = new ICSSParser(tokens);
+        parser.removeErrorListeners();
+        parser.setBuildParseTree(false);
+        ASTListener listener = new ASTListener();
+        parser.addParseListener(listener);
+
+        boolean parsed = false;
+        if (sllFirst) {
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            try {
+                parser.stylesheet();
+                parsed = true;
+            } catch (ParseCancellationException e) {
+                //Either a syntax error or a decision SLL cannot make, LL will tell which
+                FALLBACKS.increment();
+                parser.reset();
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                parser.setErrorHandler(new DefaultErrorStrategy());
+
+                //The listener holds half an AST
+                parser.removeParseListener(listener);
+                listener = new ASTListener();
+                parser.addParseListener(listener);
+            }
+        }
+        if (!parsed) {
+            parser.addErrorListener(errorListener);
+            parser.stylesheet();
+        }
+
+        return listener.getAST();
+    }
+}
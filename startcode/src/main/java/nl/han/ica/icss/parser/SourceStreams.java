@@ -0,0 +1,101 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates character streams for the lexer from UTF-8 encoded files, channels and
+ * buffers. Files are memory mapped and ASCII input is lexed in place, so the source
+ * text never has to be copied onto the heap.
+ */
+public final class SourceStreams {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private SourceStreams() {
+    }
+
+    public static CharStream fromPath(Path path) throws IOException {
+        return fromBuffer(map(path), path.toString());
+    }
+
+    /**
+     * Reads the channel to its end, where its position is left. File channels are memory
+     * mapped from their position instead of read.
+     */
+    public static CharStream fromChannel(ReadableByteChannel channel) throws IOException {
+        if (channel instanceof FileChannel) {
+            FileChannel file = (FileChannel) channel;
+            ByteBuffer mapped = map(file, file.position());
+            file.position(file.size());
+            return fromBuffer(mapped, null);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+        buffer.flip();
+        return fromBuffer(buffer, null);
+    }
+
+    /**
+     * Creates a stream over the remaining bytes of the buffer, without changing its position.
+     */
+    public static CharStream fromBuffer(ByteBuffer buffer, String name) {
+        if (isAscii(buffer)) {
+            return new ByteBufferCharStream(buffer, name);
+        }
+        //Multi-byte characters never lex as valid ICSS, but decode them for readable error messages
+        CharBuffer chars;
+        try {
+            chars = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(buffer.duplicate());
+        } catch (IOException e) {
+            throw new IllegalStateException("Decoding with replacement cannot fail", e);
+        }
+        CodePointBuffer.Builder codePoints = CodePointBuffer.builder(chars.remaining());
+        codePoints.append(chars);
+        return CodePointCharStream.fromBuffer(codePoints.build(), name);
+    }
+
+    /**
+     * Maps the file read-only into memory. The mapping stays valid after the file is closed.
+     */
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, 0);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position) throws IOException {
+        long size = channel.size() - position;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Source too large to map: " + size + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) < 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package nl.han.ica.icss.scope;
+
+import nl.han.ica.icss.ast.VariableReference;
+
+import java.util.Arrays;
+
+/**
+ * The variables of the scopes a pass is in, stored by the addresses the
+ * {@link ScopeResolver} gave their references. A pass enters and leaves the scopes in
+ * the order the resolver did: the stylesheet, stylerules and the bodies of if and else
+ * clauses.
+ *
+ * @param <T> what the pass keeps for each variable
+ */
+public class Environment<T> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[][] frames = new Object[8][];
+    private int depth;
+
+    /**
+     * @return an environment in the same scopes with the same variables, that can be changed
+     * independently of this one, for example by another thread
+     */
+    public Environment<T> copy() {
+        Environment<T> copy = new Environment<>();
+        copy.frames = Arrays.copyOf(frames, frames.length);
+        for (int frame = 0; frame < depth; frame++) {
+            copy.frames[frame] = frames[frame].clone();
+        }
+        copy.depth = depth;
+        return copy;
+    }
+
+    public void enter() {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, 2 * depth);
+        }
+        frames[depth++] = EMPTY;
+    }
+
+    public void leave() {
+        frames[--depth] = null;
+    }
+
+    /**
+     * @return the variable the reference refers to, null if it is unresolved or not assigned yet
+     */
+    @SuppressWarnings("unchecked")
+    public T get(VariableReference reference) {
+        if (!reference.isResolved() || reference.depth >= depth) return null;
+
+        Object[] frame = frames[depth - 1 - reference.depth];
+        return reference.slot < frame.length ? (T) frame[reference.slot] : null;
+    }
+
+    /**
+     * @param name the name of a variable assignment, resolved to the scope it is assigned in
+     */
+    public void assign(VariableReference name, T value) {
+        int frame = depth - 1 - name.depth;
+        if (name.slot >= frames[frame].length) {
+            frames[frame] = Arrays.copyOf(frames[frame], Math.max(name.slot + 1, 2 * frames[frame].length));
+        }
+        frames[frame][name.slot] = value;
+    }
+}
@@ -0,0 +1,153 @@
+package nl.han.ica.icss.scope;
+
+import nl.han.ica.icss.ast.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives every variable reference the address of the variable it refers to.
+ *
+ * The stylesheet, every stylerule and the bodies of every if and else clause are scopes.
+ * A variable belongs to the scope it is assigned in; assigning it again in that scope
+ * reuses its slot. A reference refers to the variable assigned before it in the nearest
+ * enclosing scope, its address is the number of scopes up to that scope and the slot.
+ * References to a variable that is not assigned before them stay unresolved.
+ *
+ * Passes that walk the scopes in the same way find variables by their address with an
+ * {@link Environment}, without looking up their names.
+ */
+public class ScopeResolver {
+
+    //Slots of the variables of every enclosing scope, innermost last
+    private final List<Map<String, Integer>> scopes = new ArrayList<>();
+    //Indices into scopes of the scopes assigning each variable, innermost first
+    private final Map<String, Deque<Integer>> assigned = new HashMap<>();
+
+    public void resolve(Stylesheet stylesheet) {
+        resolve(stylesheet.body, 0, stylesheet.body.size(), new HashMap<>());
+    }
+
+    /**
+     * Resolves the top-level nodes from (inclusive) to (exclusive) of a stylesheet.
+     *
+     * @param globals slots of the global variables assigned before the nodes, the globals the nodes assign are added
+     */
+    public void resolve(List<ASTNode> topLevel, int from, int to, Map<String, Integer> globals) {
+        resolve(topLevel, from, to, globals, false);
+    }
+
+    /**
+     * Resolves the top-level nodes from (inclusive) to (exclusive) of a stylesheet.
+     *
+     * @param globals         slots of the global variables assigned before the nodes, the globals the nodes assign are added
+     * @param globalsResolved true if the top-level assignments were resolved before, their values are then skipped
+     */
+    public void resolve(List<ASTNode> topLevel, int from, int to, Map<String, Integer> globals, boolean globalsResolved) {
+        scopes.clear();
+        assigned.clear();
+        scopes.add(globals);
+        for (String name : globals.keySet()) {
+            assigned.computeIfAbsent(name, key -> new ArrayDeque<>()).push(0);
+        }
+        Deque<Body> bodies = new ArrayDeque<>();
+        bodies.push(new Body(topLevel.subList(from, to).iterator(), null));
+
+        while (!bodies.isEmpty()) {
+            Body body = bodies.peek();
+            if (!body.nodes.hasNext()) {
+                bodies.pop();
+                leave();
+                if (body.elseClause != null) enter(bodies, body.elseClause.body, null);
+                continue;
+            }
+
+            ASTNode node = body.nodes.next();
+            if (node instanceof VariableAssignment) {
+                VariableAssignment variableAssignment = (VariableAssignment) node;
+                //The value is resolved first, it can refer to an earlier assignment of the variable
+                if (!globalsResolved || bodies.size() > 1) {
+                    resolve(variableAssignment.expression);
+                }
+                assign(variableAssignment.name);
+            } else if (node instanceof Declaration) {
+                resolve(((Declaration) node).expression);
+            } else if (node instanceof IfClause) {
+                IfClause ifClause = (IfClause) node;
+                resolve(ifClause.conditionalExpression);
+                enter(bodies, ifClause.body, ifClause.elseClause);
+            } else if (node instanceof Stylerule) {
+                enter(bodies, ((Stylerule) node).body, null);
+            }
+        }
+    }
+
+    private void enter(Deque<Body> bodies, List<ASTNode> nodes, ElseClause elseClause) {
+        scopes.add(new HashMap<>());
+        bodies.push(new Body(nodes.iterator(), elseClause));
+    }
+
+    private void leave() {
+        for (String name : scopes.remove(scopes.size() - 1).keySet()) {
+            assigned.get(name).pop();
+        }
+    }
+
+    private void assign(VariableReference name) {
+        Map<String, Integer> scope = scopes.get(scopes.size() - 1);
+        Integer slot = scope.get(name.name);
+        if (slot == null) {
+            slot = scope.size();
+            scope.put(name.name, slot);
+            assigned.computeIfAbsent(name.name, key -> new ArrayDeque<>()).push(scopes.size() - 1);
+        }
+        name.depth = 0;
+        name.slot = slot;
+    }
+
+    private void resolve(Expression expression) {
+        Deque<Expression> pending = new ArrayDeque<>();
+        if (expression != null) pending.push(expression);
+        while (!pending.isEmpty()) {
+            Expression next = pending.pop();
+            if (next instanceof VariableReference) {
+                resolve((VariableReference) next);
+            } else if (next instanceof Operation) {
+                Operation operation = (Operation) next;
+                if (operation.lhs != null) pending.push(operation.lhs);
+                if (operation.rhs != null) pending.push(operation.rhs);
+            }
+        }
+    }
+
+    private void resolve(VariableReference reference) {
+        //The innermost scope assigning the variable, without searching the scopes around the reference
+        Deque<Integer> scopesAssigning = assigned.get(reference.name);
+        if (scopesAssigning == null || scopesAssigning.isEmpty()) {
+            reference.depth = VariableReference.UNRESOLVED;
+            reference.slot = VariableReference.UNRESOLVED;
+            return;
+        }
+        int scope = scopesAssigning.peek();
+        reference.depth = scopes.size() - 1 - scope;
+        reference.slot = scopes.get(scope).get(reference.name);
+    }
+
+    /**
+     * The rest of a body being resolved, and the else clause to resolve after it.
+     */
+    private static class Body {
+        final Iterator<ASTNode> nodes;
+        final ElseClause elseClause;
+
+        Body(Iterator<ASTNode> nodes, ElseClause elseClause) {
+            this.nodes = nodes;
+            this.elseClause = elseClause;
+        }
+    }
+}
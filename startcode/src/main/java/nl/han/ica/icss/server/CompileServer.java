@@ -0,0 +1,186 @@
+package nl.han.ica.icss.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import nl.han.ica.icss.CompileError;
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.batch.BuildCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP endpoint that compiles ICSS posted to /compile and answers with CSS.
+ *
+ * Responses are cached by a hash of the request body, already encoded to bytes, so
+ * repeated compiles of the same stylesheet are served without running the compiler.
+ * The hash doubles as ETag; a request with a matching If-None-Match header gets a
+ * 304 Not Modified. Like the keys of the {@link BuildCache}, it includes a hash of the
+ * compiler classes, so a changed compiler never matches the ETags of an older one.
+ */
+public class CompileServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_CACHE_ENTRIES = 1024;
+    public static final String COMPILE_PATH = "/compile";
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_NOT_MODIFIED = 304;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_UNPROCESSABLE = 422;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CompilerService compiler;
+    private final Map<String, CachedResponse> responses;
+    private final byte[] salt;
+
+    public CompileServer(InetSocketAddress address, int cacheEntries) throws IOException {
+        this.compiler = new CompilerService();
+        this.salt = BuildCache.compilerHash();
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        this.executor = newConnectionExecutor();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(COMPILE_PATH, this::handleCompile);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handleCompile(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(STATUS_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            byte[] source;
+            try (InputStream body = exchange.getRequestBody()) {
+                source = body.readAllBytes();
+            }
+            String etag = etag(source);
+
+            CachedResponse response;
+            synchronized (responses) {
+                response = responses.get(etag);
+            }
+            if (response == null) {
+                response = compile(source);
+                synchronized (responses) {
+                    responses.put(etag, response);
+                }
+            }
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", response.contentType);
+            if (response.status == STATUS_OK) {
+                headers.set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(STATUS_NOT_MODIFIED, -1);
+                    return;
+                }
+            }
+            exchange.sendResponseHeaders(response.status, response.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private CachedResponse compile(byte[] source) {
+        CompileResult result = compiler.compile(new String(source, StandardCharsets.UTF_8));
+        if (result.isSucceeded()) {
+            return new CachedResponse(STATUS_OK, "text/css; charset=utf-8",
+                    result.getCss().getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder errors = new StringBuilder();
+        for (CompileError error : result.getErrors()) {
+            errors.append(error).append('\n');
+        }
+        return new CachedResponse(STATUS_UNPROCESSABLE, "text/plain; charset=utf-8",
+                errors.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String etag(byte[] source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(salt);
+        digest.update(source);
+
+        StringBuilder etag = new StringBuilder("\"");
+        for (byte b : digest.digest()) {
+            etag.append(Character.forDigit((b >> 4) & 0xf, 16));
+            etag.append(Character.forDigit(b & 0xf, 16));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Handles every connection on its own virtual thread when the JVM supports them,
+     * on a cached thread pool otherwise. The lookup is reflective because the project
+     * still targets a release without virtual threads.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        CompileServer server = new CompileServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_CACHE_ENTRIES);
+        server.start();
+        System.out.println("Compiling ICSS on http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + COMPILE_PATH);
+    }
+
+    private static class CachedResponse {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        CachedResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -4,200 +4,317 @@ import nl.han.ica.icss.ast.*;
 import nl.han.ica.icss.ast.literals.*;
 import nl.han.ica.icss.ast.operations.AddOperation;
 import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.parallel.RuleParallelism;
+import nl.han.ica.icss.scope.Environment;
 
 import java.util.*;
 
+/**
+ * Replaces the variables and calculations of a checked stylesheet by their values and
+ * the if clauses by the bodies their conditions select. Variables are found by the
+ * addresses the checker resolved, in an {@link Environment} of the scopes being evaluated.
+ */
 public class Evaluator implements Transform {
 
-    private final Map<String, Literal> variables;
-    private final List<ASTNode> removedNodes;
+    private final Environment<Literal> variables;
+    //Values of the top-level assignments by their index in the stylesheet, null if they are calculated in order
+    private final Literal[] globalValues;
+    private RuleParallelism parallelism = RuleParallelism.SEQUENTIAL;
 
     public Evaluator() {
-        variables = new HashMap<>();
-        removedNodes = new ArrayList<>();
+        variables = new Environment<>();
+        globalValues = null;
     }
 
-    @Override
-    public void apply(AST ast) {
-        traverse(ast.root);
+    /**
+     * @param variables    the global variables a range of the stylesheet starts with
+     * @param globalValues the values of the top-level assignments, calculated before the ranges
+     */
+    private Evaluator(Environment<Literal> variables, Literal[] globalValues) {
+        this.variables = variables;
+        this.globalValues = globalValues;
     }
 
-    private void traverse(List<ASTNode> nodes) {
-        for (ASTNode node : nodes) {
-            traverse(node);
-        }
+    /**
+     * Evaluates the top-level nodes of large stylesheets in parallel.
+     */
+    public void setParallelism(RuleParallelism parallelism) {
+        this.parallelism = parallelism;
     }
 
-    private void traverse(ASTNode node) {
-        if (node instanceof Stylesheet) {
-            transformStyleSheet((Stylesheet) node);
-        } else if (node instanceof Stylerule) {
-            transformStylerule((Stylerule) node);
-        } else if (node instanceof VariableAssignment) {
-            transformVariableAssignment((VariableAssignment) node);
-        } else if (node instanceof IfClause) {
-            transformIfClause((IfClause) node);
-        } else if (node instanceof ElseClause) {
-            transformElseClause((ElseClause) node);
-        } else if (node instanceof Operation) {
-            transformOperation((Operation) node);
-        } else if (node instanceof Declaration) {
-            transformDeclaration((Declaration) node);
-        }
+    @Override
+    public void apply(AST ast) {
+        transformStyleSheet(ast.root);
     }
 
-    private void transformDeclaration(Declaration declaration) {
-        if (declaration.expression instanceof VariableReference) {
-            declaration.expression = variables.get(((VariableReference) declaration.expression).name);
-        } else if (declaration.expression instanceof Operation) {
-            traverse(declaration.expression);
-            declaration.expression = calculate((Operation) declaration.expression);
+    private void transformStyleSheet(Stylesheet stylesheet) {
+        List<ASTNode> body = stylesheet.body;
+        int[] bounds = parallelism.split(body.size());
+        variables.enter();
+        if (bounds.length == 2) {
+            transform(body, 0, body.size());
+        } else {
+            //The global variables are calculated first, the ranges start with those assigned before them
+            List<Environment<Literal>> globals = new ArrayList<>(bounds.length - 1);
+            Literal[] values = new Literal[body.size()];
+            for (int range = 0; range < bounds.length - 1; range++) {
+                globals.add(variables.copy());
+                for (int i = bounds[range]; i < bounds[range + 1]; i++) {
+                    if (body.get(i) instanceof VariableAssignment) {
+                        VariableAssignment variableAssignment = (VariableAssignment) body.get(i);
+                        values[i] = calculate(variableAssignment.expression);
+                        variables.assign(resolved(variableAssignment.name), values[i]);
+                    }
+                }
+            }
+            parallelism.map(bounds, (range, from, to) -> {
+                new Evaluator(globals.get(range), values).transform(body, from, to);
+                return null;
+            });
         }
+        variables.leave();
+        removeVariableAssignments(body);
+        stylesheet.invalidateHash();
     }
 
-    private void transformElseClause(ElseClause elseClause) {
-        traverse(elseClause.getChildren());
-        removedNodes.add(elseClause);
-    }
-
-    private void transformIfClause(IfClause ifClause) {
-        ifClause.conditionalExpression = variables.get(((VariableReference) ifClause.conditionalExpression).name);
-
-        if (((BoolLiteral) ifClause.conditionalExpression).value) {
-            traverse(ifClause.body);
-        } else if (ifClause.elseClause != null) {
-            traverse(ifClause.elseClause.body);
+    /*
+     Transforms the top-level nodes from (inclusive) to (exclusive), with the global
+     variables assigned before them in the environment.
+     */
+    private void transform(List<ASTNode> body, int from, int to) {
+        for (int i = from; i < to; i++) {
+            ASTNode node = body.get(i);
+            if (node instanceof VariableAssignment && globalValues != null) {
+                variables.assign(resolved(((VariableAssignment) node).name), globalValues[i]);
+            } else if (node instanceof VariableAssignment) {
+                transformVariableAssignment((VariableAssignment) node);
+            } else if (node instanceof Stylerule) {
+                transformStylerule((Stylerule) node);
+            }
         }
     }
 
-    private void transformStyleSheet(Stylesheet stylesheet) {
-        traverse(stylesheet.getChildren());
-        for (ASTNode node : removedNodes) {
-            stylesheet.removeChild(node);
+    /*
+     Compacts the body in one pass: the nodes that are kept move to the front, in order,
+     and the tail is cut off. Removing any number of assignments costs one pass over
+     the body.
+     */
+    private void removeVariableAssignments(List<ASTNode> body) {
+        int kept = 0;
+        for (int i = 0; i < body.size(); i++) {
+            ASTNode node = body.get(i);
+            if (!(node instanceof VariableAssignment)) {
+                body.set(kept++, node);
+            }
         }
+        body.subList(kept, body.size()).clear();
     }
 
+    /*
+     Transforms the rule and the selected bodies of its (nested) if clauses, in source
+     order. The bodies being transformed are kept on a stack instead of the call stack,
+     so deeply nested if clauses cannot overflow it.
+     */
     private void transformStylerule(Stylerule stylerule) {
-        ArrayList<ASTNode> body = new ArrayList<>();
-        traverse(stylerule.getChildren());
+        //Every body on the stack is a scope in the environment
+        Deque<Iterator<ASTNode>> pending = new ArrayDeque<>();
+        variables.enter();
+        pending.push(stylerule.body.iterator());
+        while (!pending.isEmpty()) {
+            Iterator<ASTNode> nodes = pending.peek();
+            if (!nodes.hasNext()) {
+                pending.pop();
+                variables.leave();
+                continue;
+            }
+            ASTNode node = nodes.next();
+            if (node instanceof VariableAssignment) {
+                transformVariableAssignment((VariableAssignment) node);
+            } else if (node instanceof Declaration) {
+                transformDeclaration((Declaration) node);
+            } else if (node instanceof IfClause) {
+                List<ASTNode> selected = transformIfClause((IfClause) node);
+                if (selected != null) {
+                    variables.enter();
+                    pending.push(selected.iterator());
+                }
+            }
+        }
 
-        for (ASTNode node : stylerule.getChildren()) {
+        List<ASTNode> body = new ArrayList<>();
+        for (ASTNode node : stylerule.body) {
             if (node instanceof Declaration) body.add(node);
             if (node instanceof IfClause) body.addAll(getIfClauseBody((IfClause) node));
         }
-        stylerule.body = body;
+        //Added again, so the declarations of if clauses get the rule as their parent
+        stylerule.body.clear();
+        for (ASTNode node : body) {
+            stylerule.addChild(node);
+        }
     }
 
-    private Collection<? extends ASTNode> getIfClauseBody(IfClause ifClause) {
+    private void transformDeclaration(Declaration declaration) {
+        declaration.expression = calculate(declaration.expression);
+        declaration.invalidateHash();
+    }
+
+    /**
+     * Resolves the condition of the if clause.
+     *
+     * @return the body selected by the condition, null if the condition is false and there is no else clause
+     */
+    private List<ASTNode> transformIfClause(IfClause ifClause) {
+        ifClause.conditionalExpression = getLiteral(ifClause.conditionalExpression);
+        ifClause.invalidateHash();
+        return selectedBody(ifClause);
+    }
+
+    /*
+     The declarations that replace an evaluated if clause: those of its selected body,
+     with nested if clauses replaced by their own selected declarations.
+     */
+    private List<ASTNode> getIfClauseBody(IfClause ifClause) {
         List<ASTNode> body = new ArrayList<>();
-        if (!((BoolLiteral) ifClause.conditionalExpression).value) {
-            if (ifClause.elseClause != null) return ifClause.elseClause.body;
-            return body;
-        }
+        Deque<Iterator<ASTNode>> pending = new ArrayDeque<>();
+        List<ASTNode> selected = selectedBody(ifClause);
+        if (selected != null) pending.push(selected.iterator());
 
-        for (ASTNode node : ifClause.body) {
+        while (!pending.isEmpty()) {
+            Iterator<ASTNode> nodes = pending.peek();
+            if (!nodes.hasNext()) {
+                pending.pop();
+                continue;
+            }
+            ASTNode node = nodes.next();
             if (node instanceof IfClause) {
-                body.addAll(getIfClauseBody((IfClause) node));
-            } else {
+                selected = selectedBody((IfClause) node);
+                if (selected != null) pending.push(selected.iterator());
+            } else if (node instanceof Declaration) {
                 body.add(node);
             }
         }
         return body;
     }
 
-    private void transformVariableAssignment(VariableAssignment variableAssignment) {
-        if (variableAssignment.expression instanceof Operation) {
-            traverse(variableAssignment.expression);
-            variables.put(variableAssignment.name.name, calculate((Operation) variableAssignment.expression));
-        } else if (variableAssignment.expression instanceof VariableReference) {
-            variables.put(variableAssignment.name.name, variables.get(((VariableReference) variableAssignment.expression).name));
-        } else {
-            variables.put(variableAssignment.name.name, getLiteral(variableAssignment.expression));
+    private List<ASTNode> selectedBody(IfClause ifClause) {
+        if (((BoolLiteral) ifClause.conditionalExpression).value) {
+            return ifClause.body;
+        } else if (ifClause.elseClause != null) {
+            return ifClause.elseClause.body;
         }
-        removedNodes.add(variableAssignment);
+        return null;
     }
 
-    private void transformOperation(Operation operation) {
-        if (operation.lhs instanceof VariableReference) {
-            operation.lhs = variables.get(((VariableReference) operation.lhs).name);
-        }
-        if (operation.rhs instanceof VariableReference) {
-            operation.rhs = variables.get(((VariableReference) operation.rhs).name);
-        }
-        if (operation.lhs instanceof Operation || operation.rhs instanceof Operation) traverse(operation.getChildren());
+    private void transformVariableAssignment(VariableAssignment variableAssignment) {
+        variables.assign(resolved(variableAssignment.name), calculate(variableAssignment.expression));
     }
 
-    private Literal calculate(Operation operation) {
-        if (operation.lhs instanceof Operation) operation.lhs = calculate((Operation) operation.lhs);
-        if (operation.rhs instanceof Operation) operation.rhs = calculate((Operation) operation.rhs);
+    /**
+     * Computes the value of the expression without changing it. Operations are evaluated
+     * bottom up with a stack of operand values, so the length of a calculation is only
+     * limited by the heap.
+     */
+    private Literal calculate(Expression expression) {
+        //Pre order with the rhs before the lhs, reversed this is post order with the lhs first
+        List<Expression> preOrder = new ArrayList<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            Expression next = pending.pop();
+            preOrder.add(next);
+            if (next instanceof Operation) {
+                pending.push(((Operation) next).lhs);
+                pending.push(((Operation) next).rhs);
+            }
+        }
 
-        if (operation.lhs instanceof PixelLiteral || operation.rhs instanceof PixelLiteral) {
-            return calculatePixels(operation, (Literal) operation.lhs, (Literal) operation.rhs);
-        } else if (operation.lhs instanceof PercentageLiteral || operation.rhs instanceof PercentageLiteral) {
-            return calculatePercentages(operation, (Literal) operation.lhs, (Literal) operation.rhs);
+        //A list, because an operation without a matching case has no value
+        List<Literal> values = new ArrayList<>();
+        for (int i = preOrder.size() - 1; i >= 0; i--) {
+            Expression next = preOrder.get(i);
+            if (next instanceof Operation) {
+                Literal rhs = values.remove(values.size() - 1);
+                Literal lhs = values.remove(values.size() - 1);
+                values.add(calculate((Operation) next, lhs, rhs));
+            } else {
+                values.add(getLiteral(next));
+            }
         }
-        return null;
+        return values.get(0);
     }
 
-    private Literal calculatePercentages(Operation operation, Literal lhs, Literal rhs) {
-        int n1, n2;
-        if (lhs instanceof PercentageLiteral) {
-            n1 = ((PercentageLiteral) lhs).value;
-        } else {
-            n1 = ((ScalarLiteral) lhs).value;
+    /**
+     * @return the value of the operation, of the type the checker inferred for it, or
+     * of the type of its operands if it was not checked
+     */
+    private Literal calculate(Operation operation, Literal lhs, Literal rhs) {
+        ExpressionType type = operation.getType();
+        if (type == ExpressionType.UNDEFINED) {
+            type = typeOf(lhs, rhs);
         }
+        switch (type) {
+            case PIXEL:
+                return PixelLiteral.of(calculate(operation, valueOf(lhs), valueOf(rhs)));
+            case PERCENTAGE:
+                return PercentageLiteral.of(calculate(operation, valueOf(lhs), valueOf(rhs)));
+            case SCALAR:
+                return ScalarLiteral.of(calculate(operation, valueOf(lhs), valueOf(rhs)));
+            default:
+                return null;
+        }
+    }
 
-        if (rhs instanceof PercentageLiteral) {
-            n2 = ((PercentageLiteral) rhs).value;
-        } else {
-            n2 = ((ScalarLiteral) rhs).value;
+    private static ExpressionType typeOf(Literal lhs, Literal rhs) {
+        if (lhs instanceof PixelLiteral || rhs instanceof PixelLiteral) {
+            return ExpressionType.PIXEL;
+        } else if (lhs instanceof PercentageLiteral || rhs instanceof PercentageLiteral) {
+            return ExpressionType.PERCENTAGE;
+        } else if (lhs instanceof ScalarLiteral && rhs instanceof ScalarLiteral) {
+            return ExpressionType.SCALAR;
         }
+        return ExpressionType.UNDEFINED;
+    }
 
+    /*
+     Values wrap around on overflow, like int arithmetic in Java.
+     */
+    private int calculate(Operation operation, int lhs, int rhs) {
         if (operation instanceof AddOperation) {
-            return new PercentageLiteral(Math.addExact(n1, n2));
+            return lhs + rhs;
         } else if (operation instanceof SubtractOperation) {
-            return new PercentageLiteral(Math.subtractExact(n1, n2));
+            return lhs - rhs;
         } else {
-            return new PercentageLiteral(Math.multiplyExact(n1, n2));
+            return lhs * rhs;
         }
     }
 
-    private Literal calculatePixels(Operation operation, Literal lhs, Literal rhs) {
-        int n1, n2;
-        if (lhs instanceof PixelLiteral) {
-            n1 = ((PixelLiteral) lhs).value;
-        } else {
-            n1 = ((ScalarLiteral) lhs).value;
-        }
-
-        if (rhs instanceof PixelLiteral) {
-            n2 = ((PixelLiteral) rhs).value;
-        } else {
-            n2 = ((ScalarLiteral) rhs).value;
+    private static int valueOf(Literal literal) {
+        switch (literal.getType()) {
+            case PIXEL:
+                return ((PixelLiteral) literal).value;
+            case PERCENTAGE:
+                return ((PercentageLiteral) literal).value;
+            default:
+                return ((ScalarLiteral) literal).value;
         }
+    }
 
-        if (operation instanceof AddOperation) {
-            return new PixelLiteral(Math.addExact(n1, n2));
-        } else if (operation instanceof SubtractOperation) {
-            return new PixelLiteral(Math.subtractExact(n1, n2));
-        } else {
-            return new PixelLiteral(Math.multiplyExact(n1, n2));
+    private Literal getLiteral(Expression expression) {
+        if (expression instanceof VariableReference) {
+            return variables.get(resolved((VariableReference) expression));
         }
+        return (Literal) expression;
     }
 
-    private Literal getLiteral(Expression expression) {
-        Literal literal;
-        if (expression instanceof PixelLiteral) {
-            literal = (PixelLiteral) expression;
-        } else if (expression instanceof PercentageLiteral) {
-            literal = (PercentageLiteral) expression;
-        } else if (expression instanceof ScalarLiteral) {
-            literal = (ScalarLiteral) expression;
-        } else if (expression instanceof BoolLiteral) {
-            literal = (BoolLiteral) expression;
-        } else {
-            literal = (ColorLiteral) expression;
+    /*
+     The checker resolves the variables to their scopes, the environment finds them by
+     those addresses.
+     */
+    private static VariableReference resolved(VariableReference reference) {
+        if (!reference.isResolved()) {
+            throw new IllegalStateException("Variable " + reference.name + " is not resolved, check the AST before evaluating it");
         }
-        return literal;
+        return reference;
     }
 }
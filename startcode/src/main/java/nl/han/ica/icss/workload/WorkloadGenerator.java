@@ -0,0 +1,320 @@
+package nl.han.ica.icss.workload;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.*;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.ast.types.ExpressionType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates valid ICSS of any size for benchmarks and scaling tests, either as an AST
+ * or as source text printed from that AST.
+ *
+ * The output passes the checker: variables are assigned before they are used, values
+ * match the types of their properties and if clauses test boolean variables. The same
+ * seed and settings always give the same stylesheet.
+ */
+public class WorkloadGenerator {
+    private static final String[] TAGS = {"p", "a", "div", "span", "li", "h1"};
+    private static final String[] COLOR_PROPERTIES = {"color", "background-color"};
+    private static final String[] SIZE_PROPERTIES = {"width", "height"};
+    private static final ExpressionType[] VARIABLE_TYPES = {
+            ExpressionType.BOOL, ExpressionType.PIXEL, ExpressionType.COLOR, ExpressionType.PERCENTAGE
+    };
+    private static final String INDENT = "  ";
+
+    private final long seed;
+    private int rules = 100;
+    private int declarationsPerRule = 4;
+    private int globalVariables = 8;
+    private int localVariables = 1;
+    private int ifDepth = 1;
+    private int calculationLength = 3;
+
+    private Random random;
+    private Map<ExpressionType, List<String>> globals;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public WorkloadGenerator rules(int rules) {
+        this.rules = requireNotNegative(rules, "rules");
+        return this;
+    }
+
+    public WorkloadGenerator declarationsPerRule(int declarationsPerRule) {
+        this.declarationsPerRule = requireNotNegative(declarationsPerRule, "declarationsPerRule");
+        return this;
+    }
+
+    public WorkloadGenerator globalVariables(int globalVariables) {
+        this.globalVariables = requireNotNegative(globalVariables, "globalVariables");
+        return this;
+    }
+
+    /**
+     * @param localVariables number of variables assigned at the start of every rule
+     */
+    public WorkloadGenerator localVariables(int localVariables) {
+        this.localVariables = requireNotNegative(localVariables, "localVariables");
+        return this;
+    }
+
+    /**
+     * @param ifDepth number of nested if clauses in every rule, each level with an else clause
+     */
+    public WorkloadGenerator ifDepth(int ifDepth) {
+        this.ifDepth = requireNotNegative(ifDepth, "ifDepth");
+        return this;
+    }
+
+    /**
+     * @param calculationLength number of operands of every pixel or percentage value, 1 for plain values
+     */
+    public WorkloadGenerator calculationLength(int calculationLength) {
+        if (calculationLength < 1) {
+            throw new IllegalArgumentException("calculationLength must be at least 1, got " + calculationLength);
+        }
+        this.calculationLength = calculationLength;
+        return this;
+    }
+
+    public AST generateAst() {
+        random = new Random(seed);
+        globals = newScope();
+        Stylesheet stylesheet = new Stylesheet();
+
+        for (int i = 0; i < globalVariables; i++) {
+            stylesheet.addChild(assignment("Global" + i, VARIABLE_TYPES[i % VARIABLE_TYPES.length], globals));
+        }
+        for (int i = 0; i < rules; i++) {
+            stylesheet.addChild(stylerule(i));
+        }
+        return new AST(stylesheet);
+    }
+
+    public String generateSource() {
+        StringBuilder source = new StringBuilder();
+        for (ASTNode node : generateAst().root.body) {
+            if (node instanceof VariableAssignment) {
+                printAssignment((VariableAssignment) node, source, "");
+            } else {
+                printStylerule((Stylerule) node, source);
+            }
+        }
+        return source.toString();
+    }
+
+    private Stylerule stylerule(int index) {
+        Stylerule stylerule = new Stylerule();
+        stylerule.addChild(selector(index));
+
+        Map<ExpressionType, List<String>> scope = newScope();
+        for (Map.Entry<ExpressionType, List<String>> entry : globals.entrySet()) {
+            scope.get(entry.getKey()).addAll(entry.getValue());
+        }
+        for (int i = 0; i < localVariables; i++) {
+            String name = "Rule" + index + "Local" + i;
+            stylerule.addChild(assignment(name, VARIABLE_TYPES[i % VARIABLE_TYPES.length], scope));
+        }
+        if (ifDepth > 0 && scope.get(ExpressionType.BOOL).isEmpty()) {
+            stylerule.addChild(assignment("Rule" + index + "Flag", ExpressionType.BOOL, scope));
+        }
+
+        for (int i = 0; i < declarationsPerRule; i++) {
+            stylerule.addChild(declaration(scope));
+        }
+        if (ifDepth > 0) {
+            stylerule.addChild(ifClause(ifDepth, scope));
+        }
+        return stylerule;
+    }
+
+    private Selector selector(int index) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return new TagSelector(TAGS[random.nextInt(TAGS.length)] + index);
+            case 1:
+                return new ClassSelector(".rule-" + index);
+            default:
+                return new IdSelector("#rule-" + index);
+        }
+    }
+
+    private IfClause ifClause(int depth, Map<ExpressionType, List<String>> scope) {
+        IfClause ifClause = new IfClause();
+        ifClause.addChild(new VariableReference(pick(scope.get(ExpressionType.BOOL))));
+        ifClause.addChild(declaration(scope));
+        if (depth > 1) {
+            ifClause.addChild(ifClause(depth - 1, scope));
+        }
+        ifClause.addChild((new ElseClause()).addChild(declaration(scope)));
+        return ifClause;
+    }
+
+    private Declaration declaration(Map<ExpressionType, List<String>> scope) {
+        Declaration declaration;
+        if (random.nextBoolean()) {
+            declaration = new Declaration(COLOR_PROPERTIES[random.nextInt(COLOR_PROPERTIES.length)]);
+            declaration.addChild(value(ExpressionType.COLOR, scope));
+        } else {
+            declaration = new Declaration(SIZE_PROPERTIES[random.nextInt(SIZE_PROPERTIES.length)]);
+            declaration.addChild(value(random.nextBoolean() ? ExpressionType.PIXEL : ExpressionType.PERCENTAGE, scope));
+        }
+        return declaration;
+    }
+
+    private VariableAssignment assignment(String name, ExpressionType type, Map<ExpressionType, List<String>> scope) {
+        VariableAssignment assignment = new VariableAssignment();
+        assignment.addChild(new VariableReference(name));
+        assignment.addChild(value(type, scope));
+        scope.get(type).add(name);
+        return assignment;
+    }
+
+    private Expression value(ExpressionType type, Map<ExpressionType, List<String>> scope) {
+        List<String> variables = scope.get(type);
+        switch (type) {
+            case BOOL:
+                return BoolLiteral.of(random.nextBoolean());
+            case COLOR:
+                if (!variables.isEmpty() && random.nextBoolean()) {
+                    return new VariableReference(pick(variables));
+                }
+                return ColorLiteral.of(random.nextInt(0x1000000));
+            default:
+                //Older checkers could not place rule-local variables nested in an operation, so calculations use globals
+                return calculation(type, calculationLength == 1 ? variables : globals.get(type));
+        }
+    }
+
+    /**
+     * Builds a left associative chain of additions and subtractions. Operands are literals,
+     * literals multiplied by a scalar and variables. Two variables are never adjacent and
+     * variables are never multiplied, which keeps workloads parseable by older grammars.
+     */
+    private Expression calculation(ExpressionType type, List<String> variables) {
+        Expression operand = operand(type, variables, false);
+        Expression result = operand;
+        for (int i = 1; i < calculationLength; i++) {
+            operand = operand(type, variables, operand instanceof VariableReference);
+            Operation operation = random.nextBoolean() ? new AddOperation() : new SubtractOperation();
+            operation.addChild(result);
+            operation.addChild(operand);
+            result = operation;
+        }
+        return result;
+    }
+
+    private Expression operand(ExpressionType type, List<String> variables, boolean afterVariable) {
+        int choice = random.nextInt(4);
+        if (choice == 0 && !variables.isEmpty() && !afterVariable) {
+            return new VariableReference(pick(variables));
+        }
+        Literal literal = type == ExpressionType.PIXEL
+                ? PixelLiteral.of(1 + random.nextInt(500))
+                : PercentageLiteral.of(1 + random.nextInt(100));
+        if (choice == 1) {
+            Operation multiply = new MultiplyOperation();
+            multiply.addChild(literal);
+            multiply.addChild(ScalarLiteral.of(2 + random.nextInt(3)));
+            return multiply;
+        }
+        return literal;
+    }
+
+    private String pick(List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private static Map<ExpressionType, List<String>> newScope() {
+        Map<ExpressionType, List<String>> scope = new EnumMap<>(ExpressionType.class);
+        for (ExpressionType type : VARIABLE_TYPES) {
+            scope.put(type, new ArrayList<>());
+        }
+        return scope;
+    }
+
+    private static int requireNotNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative, got " + value);
+        }
+        return value;
+    }
+
+    private void printStylerule(Stylerule stylerule, StringBuilder source) {
+        source.append(stylerule.selectors.get(0)).append(" {\n");
+        printBody(stylerule.body, source, INDENT);
+        source.append("}\n\n");
+    }
+
+    private void printBody(List<ASTNode> body, StringBuilder source, String indent) {
+        for (ASTNode node : body) {
+            if (node instanceof VariableAssignment) {
+                printAssignment((VariableAssignment) node, source, indent);
+            } else if (node instanceof Declaration) {
+                Declaration declaration = (Declaration) node;
+                source.append(indent).append(declaration.property.name).append(": ");
+                printExpression(declaration.expression, source);
+                source.append(";\n");
+            } else if (node instanceof IfClause) {
+                IfClause ifClause = (IfClause) node;
+                source.append(indent).append("if[");
+                printExpression(ifClause.conditionalExpression, source);
+                source.append("] {\n");
+                printBody(ifClause.body, source, indent + INDENT);
+                source.append(indent).append('}');
+                if (ifClause.elseClause != null) {
+                    source.append(" else {\n");
+                    printBody(ifClause.elseClause.body, source, indent + INDENT);
+                    source.append(indent).append('}');
+                }
+                source.append('\n');
+            }
+        }
+    }
+
+    private void printAssignment(VariableAssignment assignment, StringBuilder source, String indent) {
+        source.append(indent).append(assignment.name.name).append(" := ");
+        printExpression(assignment.expression, source);
+        source.append(";\n");
+    }
+
+    private void printExpression(Expression expression, StringBuilder source) {
+        if (expression instanceof Operation) {
+            Operation operation = (Operation) expression;
+            printExpression(operation.lhs, source);
+            if (operation instanceof AddOperation) {
+                source.append(" + ");
+            } else if (operation instanceof SubtractOperation) {
+                source.append(" - ");
+            } else {
+                source.append(" * ");
+            }
+            printExpression(operation.rhs, source);
+        } else if (expression instanceof VariableReference) {
+            source.append(((VariableReference) expression).name);
+        } else if (expression instanceof PixelLiteral) {
+            source.append(((PixelLiteral) expression).value).append("px");
+        } else if (expression instanceof PercentageLiteral) {
+            source.append(((PercentageLiteral) expression).value).append('%');
+        } else if (expression instanceof ScalarLiteral) {
+            source.append(((ScalarLiteral) expression).value);
+        } else if (expression instanceof ColorLiteral) {
+            source.append(((ColorLiteral) expression).getText());
+        } else if (expression instanceof BoolLiteral) {
+            source.append(((BoolLiteral) expression).value ? "TRUE" : "FALSE");
+        }
+    }
+}
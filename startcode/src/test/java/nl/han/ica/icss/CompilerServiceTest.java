@@ -0,0 +1,131 @@
+package nl.han.ica.icss;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompilerServiceTest {
+    private CompilerService sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new CompilerService();
+    }
+
+    String readTestFile(String resource) throws IOException {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void compileGeneratesCss() throws IOException {
+        CompileResult result = sut.compile(readTestFile("level0.icss"));
+
+        assertTrue(result.isSucceeded());
+        assertEquals("p {\n  background-color: #ffffff;\n  width: 500px;\n}\n\n"
+                + "a {\n  color: #ff0000;\n}\n\n"
+                + "#menu {\n  width: 520px;\n}\n\n"
+                + ".menu {\n  color: #000000;\n}\n\n", result.getCss());
+    }
+
+    @Test
+    void compileRecordsTimingsForEveryStage() throws IOException {
+        CompileResult result = sut.compile(readTestFile("level3.icss"));
+
+        for (Stage stage : Stage.values()) {
+            assertTrue(result.getNanos(stage) > 0, stage.toString());
+        }
+    }
+
+    @Test
+    void compileReportsSyntaxErrorsWithPosition() {
+        CompileResult result = sut.compile("p {\n  width 10px;\n}");
+
+        assertFalse(result.isSucceeded());
+        assertNull(result.getCss());
+        CompileError error = result.getErrors().get(0);
+        assertEquals(Stage.PARSE, error.getStage());
+        assertEquals(2, error.getLine());
+    }
+
+    @Test
+    void compileReportsSemanticErrors() {
+        CompileResult result = sut.compile("p { width: #ff0000; }");
+
+        assertFalse(result.isSucceeded());
+        assertEquals(Stage.CHECK, result.getErrors().get(0).getStage());
+        assertEquals(0, result.getNanos(Stage.GENERATE));
+    }
+
+    @Test
+    void compileFileGivesSameCssAsCompileString(@TempDir Path directory) throws IOException {
+        String source = readTestFile("level3.icss");
+        Path file = Files.writeString(directory.resolve("level3.icss"), source);
+
+        assertEquals(sut.compile(source).getCss(), sut.compileFile(file).getCss());
+    }
+
+    @Test
+    void compileBufferWithMultiByteCharactersReportsSyntaxError() {
+        ByteBuffer source = ByteBuffer.wrap("p { width: 10px; }\nq { width: 10\u00b5m; }".getBytes(StandardCharsets.UTF_8));
+
+        CompileResult result = sut.compile(source);
+
+        assertEquals(Stage.PARSE, result.getErrors().get(0).getStage());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals(0, source.position());
+    }
+
+    @Test
+    void compileToChannelStreamsSameCssAsCompileString() throws IOException {
+        String source = readTestFile("level3.icss");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        CompileResult result = sut.compile(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)),
+                Channels.newChannel(output));
+
+        assertTrue(result.isSucceeded());
+        assertNull(result.getCss());
+        assertEquals(sut.compile(source).getCss(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compileToChannelWritesNothingOnErrors() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        CompileResult result = sut.compile(ByteBuffer.wrap("p { width: #ff0000; }".getBytes(StandardCharsets.UTF_8)),
+                Channels.newChannel(output));
+
+        assertFalse(result.isSucceeded());
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    void compileAsyncFromManyThreadsGivesSameResult() throws IOException {
+        String source = readTestFile("level3.icss");
+        String expected = sut.compile(source).getCss();
+
+        List<CompletableFuture<CompileResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            futures.add(sut.compileAsync(source));
+        }
+        for (CompletableFuture<CompileResult> future : futures) {
+            assertEquals(expected, future.join().getCss());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package nl.han.ica.icss;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Trees far deeper than the thread stack allows for recursive passes. How the time to
+ * compile them grows with their depth is measured by the DeepTreeBenchmark.
+ */
+class DeepTreeTest {
+    private static final int CALCULATION_LENGTH = 100_000;
+    private static final int IF_DEPTH = 100_000;
+
+    private static String calculation(int terms) {
+        StringBuilder source = new StringBuilder("Width := 0px");
+        for (int i = 1; i < terms; i++) {
+            source.append(i % 2 == 0 ? " - 1px" : " + 2px");
+        }
+        source.append(";\np {\n  width: Width;\n  height: 10px");
+        for (int i = 1; i < terms; i++) {
+            source.append(" + 2px * 1");
+        }
+        return source.append(";\n}\n").toString();
+    }
+
+    private static AST nestedIfClauses(int depth) {
+        IfClause ifClause = new IfClause();
+        ifClause.addChild(new VariableReference("Flag"));
+        ifClause.addChild(new Declaration("width").addChild(PixelLiteral.of(1)));
+        for (int i = 1; i < depth; i++) {
+            IfClause outer = new IfClause();
+            outer.addChild(new VariableReference("Flag"));
+            outer.addChild(ifClause);
+            outer.addChild(new ElseClause().addChild(new Declaration("width").addChild(PixelLiteral.of(2))));
+            ifClause = outer;
+        }
+
+        Stylesheet stylesheet = new Stylesheet();
+        stylesheet.addChild(new VariableAssignment().addChild(new VariableReference("Flag")).addChild(BoolLiteral.TRUE));
+        stylesheet.addChild(new Stylerule().addChild(new TagSelector("p")).addChild(ifClause));
+        return new AST(stylesheet);
+    }
+
+    @Test
+    void compileLongCalculations() {
+        CompileResult result = new CompilerService().compile(calculation(CALCULATION_LENGTH));
+
+        assertTrue(result.isSucceeded(), () -> result.getErrors().toString());
+        //Half of the terms after the first add 2px, the others but one subtract 1px
+        assertEquals("p {\n  width: " + (CALCULATION_LENGTH / 2 + 1) + "px;\n  height: "
+                + (10 + 2 * (CALCULATION_LENGTH - 1)) + "px;\n}\n\n", result.getCss());
+    }
+
+    @Test
+    void deeplyNestedIfClausesAreComparedHashedAndPrinted() {
+        AST ast = nestedIfClauses(IF_DEPTH);
+        AST same = nestedIfClauses(IF_DEPTH);
+        AST other = nestedIfClauses(IF_DEPTH - 1);
+
+        assertEquals(ast.hashCode(), same.hashCode());
+        assertEquals(ast, same);
+        assertNotEquals(ast, other);
+        assertEquals(ast.toString(), same.toString());
+    }
+
+    @Test
+    void deeplyNestedIfClausesAreCheckedEvaluatedAndGenerated() {
+        AST ast = nestedIfClauses(IF_DEPTH);
+
+        new Checker().check(ast);
+        assertTrue(ast.getErrors().isEmpty());
+        new Evaluator().apply(ast);
+        assertEquals("p {\n  width: 1px;\n}\n\n", new Generator().generate(ast));
+    }
+}
@@ -0,0 +1,136 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.parser.Fixtures;
+import nl.han.ica.icss.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTNodeTest {
+
+    private static void assertChildAtMatchesGetChildren(ASTNode node) {
+        List<ASTNode> children = node.getChildren();
+
+        assertEquals(children.size(), node.childCount(), node.getNodeLabel());
+        for (int i = 0; i < children.size(); i++) {
+            assertSame(children.get(i), node.childAt(i), node.getNodeLabel());
+            assertChildAtMatchesGetChildren(children.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> node.childAt(children.size()));
+    }
+
+    @Test
+    void childAtMatchesGetChildrenForEveryNodeType() {
+        assertChildAtMatchesGetChildren(Fixtures.uncheckedLevel3().root);
+        assertChildAtMatchesGetChildren(new WorkloadGenerator(2020).rules(20).ifDepth(3).generateAst().root);
+    }
+
+    @Test
+    void childAtSkipsMissingChildren() {
+        Declaration declaration = new Declaration();
+        declaration.expression = new VariableReference("Width");
+
+        assertEquals(1, declaration.childCount());
+        assertSame(declaration.expression, declaration.childAt(0));
+    }
+
+    @Test
+    void equalTreesHaveEqualHashes() {
+        assertEquals(Fixtures.uncheckedLevel3(), Fixtures.uncheckedLevel3());
+        assertEquals(Fixtures.uncheckedLevel3().hashCode(), Fixtures.uncheckedLevel3().hashCode());
+        assertNotEquals(Fixtures.uncheckedLevel2(), Fixtures.uncheckedLevel3());
+    }
+
+    @Test
+    void operationsAndPropertiesAreComparedByContent() {
+        ASTNode add = new AddOperation().addChild(PixelLiteral.of(1)).addChild(PixelLiteral.of(2));
+        ASTNode subtract = new SubtractOperation().addChild(PixelLiteral.of(1)).addChild(PixelLiteral.of(2));
+
+        assertEquals(add, new AddOperation().addChild(PixelLiteral.of(1)).addChild(PixelLiteral.of(2)));
+        assertNotEquals(add, subtract);
+        assertNotEquals(new Declaration("width"), new Declaration("height"));
+    }
+
+    @Test
+    void changingANodeInvalidatesItsHash() {
+        Stylerule stylerule = new Stylerule();
+        stylerule.addChild(new Declaration("width").addChild(PixelLiteral.of(10)));
+        int before = stylerule.hashCode();
+
+        stylerule.addChild(new Declaration("height").addChild(PixelLiteral.of(10)));
+        assertNotEquals(before, stylerule.hashCode());
+
+        Declaration declaration = (Declaration) stylerule.body.get(0);
+        declaration.expression = PixelLiteral.of(20);
+        stylerule.invalidateHashes();
+        assertEquals(new Stylerule()
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(20)))
+                .addChild(new Declaration("height").addChild(PixelLiteral.of(10))), stylerule);
+    }
+
+    @Test
+    void changingANestedNodeInvalidatesTheHashesOfItsAncestors() {
+        IfClause ifClause = new IfClause();
+        ifClause.addChild(BoolLiteral.of(true));
+        Stylerule stylerule = new Stylerule();
+        stylerule.addChild(new TagSelector("p")).addChild(ifClause);
+        stylerule.hashCode();
+
+        ifClause.addChild(new Declaration("width").addChild(PixelLiteral.of(10)));
+        Stylerule built = new Stylerule();
+        built.addChild(new TagSelector("p")).addChild(new IfClause()
+                .addChild(BoolLiteral.of(true))
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(10))));
+        assertEquals(built.hashCode(), stylerule.hashCode());
+        assertEquals(built, stylerule);
+        assertEquals(stylerule, built);
+
+        Declaration declaration = (Declaration) ifClause.body.get(0);
+        declaration.expression = PixelLiteral.of(20);
+        declaration.invalidateHash();
+        assertNotEquals(built, stylerule);
+    }
+
+    @Test
+    void changesBelowChildrenOfConstructorsOrAssignedDirectlyInvalidateTheHashesOfAncestors() {
+        IfClause ifClause = new IfClause(BoolLiteral.of(true), new ArrayList<>());
+        Stylerule stylerule = new Stylerule(new TagSelector("p"), new ArrayList<>(List.of(ifClause)));
+        Declaration declaration = new Declaration("width");
+        declaration.expression = PixelLiteral.of(10);
+        ifClause.body.add(declaration);
+        stylerule.hashCode();
+
+        declaration.expression = PixelLiteral.of(20);
+        declaration.invalidateHash();
+        Stylerule built = new Stylerule();
+        built.addChild(new TagSelector("p")).addChild(new IfClause()
+                .addChild(BoolLiteral.of(true))
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(20))));
+        assertEquals(built.hashCode(), stylerule.hashCode());
+        assertEquals(built, stylerule);
+
+        ifClause.addChild(new Declaration("height").addChild(PixelLiteral.of(10)));
+        assertNotEquals(built, stylerule);
+    }
+
+    @Test
+    void removeChildRemovesTheNodeItselfNotAnEqualOne() {
+        ASTNode first = new VariableAssignment().addChild(new VariableReference("Width")).addChild(PixelLiteral.of(10));
+        ASTNode second = new VariableAssignment().addChild(new VariableReference("Width")).addChild(PixelLiteral.of(10));
+        Stylesheet stylesheet = new Stylesheet();
+        stylesheet.addChild(first).addChild(second);
+
+        stylesheet.removeChild(second);
+
+        assertEquals(1, stylesheet.body.size());
+        assertSame(first, stylesheet.body.get(0));
+    }
+}
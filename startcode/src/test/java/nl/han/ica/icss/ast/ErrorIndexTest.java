@@ -0,0 +1,84 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.checker.SemanticError;
+import nl.han.ica.icss.parser.SourceParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorIndexTest {
+
+    private static List<String> descriptions(List<SemanticError> errors) {
+        List<String> descriptions = new ArrayList<>();
+        for (SemanticError error : errors) {
+            descriptions.add(error.description);
+        }
+        return descriptions;
+    }
+
+    @Test
+    void indexedErrorsEqualErrorsFoundByWalkingTheAst() {
+        AST ast = new SourceParser().parse(CharStreams.fromString(
+                "p { width: #ff0000; color: 10px; }\n"
+                        + "a { height: Undefined; }\n"
+                        + "#menu { width: 10px + 10%; }"), new BaseErrorListener());
+        new Checker().check(ast);
+
+        List<String> indexed = descriptions(ast.getErrors());
+        ast.setErrorIndex(null);
+        List<String> walked = descriptions(ast.getErrors());
+
+        assertEquals(4, indexed.size(), indexed.toString());
+        assertEquals(walked, indexed);
+    }
+
+    @Test
+    void indexesEveryNodeOnceWithItsLastError() {
+        Declaration declaration = new Declaration("width");
+        Declaration other = new Declaration("color");
+        ErrorIndex index = new ErrorIndex();
+
+        index.report(declaration, "first");
+        index.report(other, "other");
+        index.report(declaration, "second");
+
+        assertEquals(List.of("second", "other"), descriptions(index.getErrors()));
+        assertEquals("second", declaration.getError().description);
+    }
+
+    @Test
+    void indexesOnlyTheErrorsReportedToIt() {
+        Declaration reported = new Declaration("width");
+        Declaration set = new Declaration("color");
+        ErrorIndex index = new ErrorIndex();
+        ErrorIndex other = new ErrorIndex();
+
+        index.report(reported, "reported");
+        set.setError("set on the node");
+
+        assertEquals(List.of("reported"), descriptions(index.getErrors()));
+        assertTrue(other.getErrors().isEmpty());
+    }
+
+    @Test
+    void addsTheNodesOfAnotherIndexAfterItsOwn() {
+        Declaration first = new Declaration("width");
+        Declaration second = new Declaration("color");
+        ErrorIndex index = new ErrorIndex();
+        ErrorIndex other = new ErrorIndex();
+        index.report(first, "first");
+        other.report(second, "second");
+        other.report(first, "again");
+
+        index.addAll(other);
+
+        assertEquals(List.of("again", "second"), descriptions(index.getErrors()));
+        assertEquals(List.of("second", "again"), descriptions(other.getErrors()));
+    }
+}
@@ -0,0 +1,58 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.literals.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteralTest {
+
+    @Test
+    void parsesValuesFromTokenText() {
+        assertEquals(500, PixelLiteral.of("500px").value);
+        assertEquals(25, PercentageLiteral.of("25%").value);
+        assertEquals(3, ScalarLiteral.of("3").value);
+        assertTrue(BoolLiteral.of("TRUE").value);
+        assertFalse(BoolLiteral.of("FALSE").value);
+        assertEquals(Integer.MAX_VALUE, ScalarLiteral.of(Integer.toString(Integer.MAX_VALUE)).value);
+    }
+
+    @Test
+    void rejectsValuesThatDoNotFitAnInt() {
+        assertThrows(NumberFormatException.class, () -> PixelLiteral.of("2147483648px"));
+        assertThrows(NumberFormatException.class, () -> ScalarLiteral.of(""));
+    }
+
+    @Test
+    void sharesSmallValues() {
+        assertSame(PixelLiteral.of(0), PixelLiteral.of("0px"));
+        assertSame(PercentageLiteral.of(100), PercentageLiteral.of("100%"));
+        assertSame(BoolLiteral.TRUE, BoolLiteral.of(true));
+        assertSame(ColorLiteral.of("#ffffff"), ColorLiteral.of(0xffffff));
+        assertSame(ColorLiteral.of("#000000"), ColorLiteral.of(0));
+        assertEquals(0xcc3366, ColorLiteral.of("#CC3366").value);
+        assertNotSame(ColorLiteral.of(0x124532), ColorLiteral.of(0x124532));
+        assertNotSame(PixelLiteral.of(100_000), PixelLiteral.of(100_000));
+        assertEquals(PixelLiteral.of(100_000), PixelLiteral.of(100_000));
+    }
+
+    @Test
+    void packsColorsIntoAnInt() {
+        ColorLiteral color = new ColorLiteral("#124532");
+
+        assertEquals(0x124532, color.value);
+        assertEquals("#124532", color.getText());
+        assertEquals("#00000f", new ColorLiteral(0xf).getText());
+        assertEquals(color, new ColorLiteral(0x124532));
+    }
+
+    @Test
+    void literalsMadeWithTheConstructorKeepTheirOwnErrors() {
+        PixelLiteral literal = new PixelLiteral(0);
+
+        literal.setError("error");
+
+        assertEquals("error", literal.getError().description);
+        assertFalse(PixelLiteral.of(0).hasError());
+    }
+}
@@ -0,0 +1,117 @@
+package nl.han.ica.icss.ast.arena;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.Fixtures;
+import nl.han.ica.icss.transforms.Evaluator;
+import nl.han.ica.icss.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaASTTest {
+
+    @Test
+    void toAstGivesBackTheObjectTree() {
+        AST[] asts = {Fixtures.uncheckedLevel0(), Fixtures.uncheckedLevel1(), Fixtures.uncheckedLevel2(),
+                Fixtures.uncheckedLevel3(), new WorkloadGenerator(2020).ifDepth(3).generateAst()};
+
+        for (AST ast : asts) {
+            assertEquals(ast, ArenaAST.from(ast).toAST());
+        }
+    }
+
+    @Test
+    void viewHasTheLabelsAndChildrenOfTheObjectTree() {
+        AST ast = Fixtures.uncheckedLevel3();
+        ArenaAST arena = ArenaAST.from(ast);
+
+        assertEquals(ast.toString(), arena.getRoot().toString());
+        assertThrows(UnsupportedOperationException.class, () -> arena.getRoot().childAt(0).setError("error"));
+        AST generated = new WorkloadGenerator(7).rules(20).localVariables(2).ifDepth(2).generateAst();
+        assertEquals(generated.toString(), ArenaAST.from(generated).getRoot().toString());
+    }
+
+    @Test
+    void viewsAreMadeOncePerNode() {
+        ArenaAST arena = ArenaAST.from(Fixtures.uncheckedLevel3());
+
+        assertSame(arena.getRoot(), arena.getRoot());
+        assertSame(arena.getRoot().childAt(1).childAt(0), arena.getRoot().childAt(1).childAt(0));
+    }
+
+    @Test
+    void nodesAreNumberedInPreOrder() {
+        ArenaAST arena = ArenaAST.from(new WorkloadGenerator(7).rules(10).generateAst());
+
+        assertEquals(NodeKind.STYLESHEET, arena.kind(0));
+        assertEquals(-1, arena.parent(0));
+        for (int node = 0; node < arena.size(); node++) {
+            for (int i = 0; i < arena.childCount(node); i++) {
+                int child = arena.childAt(node, i);
+                assertEquals(node, arena.parent(child));
+                assertTrue(child > node);
+            }
+        }
+    }
+
+    @Test
+    void stagesRunOnTheMaterializedTree() {
+        AST ast = Fixtures.uncheckedLevel3();
+        AST fromArena = ArenaAST.from(ast).toAST();
+
+        for (AST tree : new AST[]{ast, fromArena}) {
+            new Checker().check(tree);
+            assertTrue(tree.getErrors().isEmpty());
+            new Evaluator().apply(tree);
+        }
+        assertEquals(new Generator().generate(ast), new Generator().generate(fromArena));
+    }
+
+    @Test
+    void generatorWalksTheArena() {
+        AST ast = new WorkloadGenerator(7).rules(20).localVariables(2).ifDepth(2).generateAst();
+        new Checker().check(ast);
+        new Evaluator().apply(ast);
+
+        assertEquals(new Generator().generate(ast), new Generator().generate(ArenaAST.from(ast)));
+        assertThrows(IllegalArgumentException.class, () -> new Generator().generate(ArenaAST.from(Fixtures.uncheckedLevel1())));
+    }
+
+    @Test
+    void viewsAreEqualIfTheyShowTheSameNode() {
+        AST ast = new AST();
+        ast.root.addChild(new Stylerule()
+                .addChild(new TagSelector("p"))
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(1)))
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(2))));
+        ArenaAST arena = ArenaAST.from(ast);
+        ASTNode stylerule = arena.getRoot().childAt(0);
+
+        assertNotEquals(stylerule.childAt(1), stylerule.childAt(2));
+        assertNotEquals(stylerule.childAt(1).childAt(1), stylerule.childAt(2).childAt(1));
+        assertEquals(arena.view(2), new ArenaNode(arena, 2));
+        assertEquals(arena.view(2).hashCode(), new ArenaNode(arena, 2).hashCode());
+        assertNotEquals(arena.getRoot(), ArenaAST.from(ast).getRoot());
+    }
+
+    @Test
+    void sharesEqualNames() {
+        ArenaAST arena = ArenaAST.from(Fixtures.uncheckedLevel1());
+
+        int first = -1;
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.kind(node) == NodeKind.VARIABLE_REFERENCE && arena.name(node).equals("LinkColor")) {
+                if (first < 0) {
+                    first = node;
+                } else {
+                    assertSame(arena.name(first), arena.name(node));
+                }
+            }
+        }
+        assertTrue(first > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package nl.han.ica.icss.batch;
+
+import nl.han.ica.icss.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCompilerTest {
+    private static final int FILES = 24;
+
+    private static void writeSources(Path root) throws IOException {
+        for (int i = 0; i < FILES; i++) {
+            String source = new WorkloadGenerator(i).rules(20).localVariables(2).ifDepth(2).generateSource();
+            Path path = root.resolve("module" + i % 3).resolve("sheet" + i + ".icss");
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, source);
+        }
+    }
+
+    @Test
+    void writesTheSameBytesWithAnyNumberOfThreads(@TempDir Path directory) throws IOException {
+        Path sources = directory.resolve("src");
+        writeSources(sources);
+
+        BatchResult sequential = new BatchCompiler(sources, directory.resolve("out1"), 1).compile();
+        BatchResult parallel = new BatchCompiler(sources, directory.resolve("out4"), 4).compile();
+
+        assertTrue(sequential.isSucceeded());
+        assertTrue(parallel.isSucceeded());
+        assertEquals(FILES, parallel.getFiles().size());
+        for (int i = 0; i < FILES; i++) {
+            FileResult expected = sequential.getFiles().get(i);
+            FileResult result = parallel.getFiles().get(i);
+            assertEquals(expected.getSource(), result.getSource());
+            assertArrayEquals(Files.readAllBytes(expected.getOutput()), Files.readAllBytes(result.getOutput()));
+        }
+    }
+
+    @Test
+    void mirrorsTheSourceTreeInTheOutputDirectory(@TempDir Path directory) throws IOException {
+        Path sources = directory.resolve("src");
+        Path source = sources.resolve("a").resolve("b").resolve("page.icss");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "p { width: 10px; }");
+        Files.writeString(sources.resolve("notes.txt"), "not a source");
+
+        BatchCompiler compiler = new BatchCompiler(sources, directory.resolve("out"), 2);
+        BatchResult result = compiler.compile();
+
+        Path output = directory.resolve("out").resolve("a").resolve("b").resolve("page.css");
+        assertEquals(List.of(source), compiler.findSources());
+        assertEquals(output, result.getFiles().get(0).getOutput());
+        assertEquals("p {\n  width: 10px;\n}\n\n", Files.readString(output));
+        assertEquals(source.resolveSibling("page.css"), new BatchCompiler(sources, null, 1).outputFor(source));
+    }
+
+    @Test
+    void keepsThePreviousOutputOfSourcesWithErrors(@TempDir Path directory) throws IOException {
+        Path source = Files.writeString(directory.resolve("page.icss"), "p { width: 10px; }");
+        BatchCompiler compiler = new BatchCompiler(directory, null, 1);
+        compiler.compile();
+
+        Files.writeString(source, "p { width: Undefined; }");
+        BatchResult result = compiler.compile();
+
+        assertFalse(result.isSucceeded());
+        assertEquals(1, result.getFailureCount());
+        assertEquals("p {\n  width: 10px;\n}\n\n", Files.readString(directory.resolve("page.css")));
+        assertFalse(Files.exists(directory.resolve("page.css.tmp")));
+    }
+
+    @Test
+    void exitsWithZeroOneOrTwo(@TempDir Path directory) throws IOException {
+        Path valid = directory.resolve("valid");
+        Path invalid = directory.resolve("invalid");
+        Files.createDirectories(valid);
+        Files.createDirectories(invalid);
+        Files.writeString(valid.resolve("page.icss"), "p { width: 10px; }");
+        Files.writeString(invalid.resolve("page.icss"), "p { width: #ffffff; }");
+
+        assertEquals(0, BatchMain.run(new String[]{"-j", "2", valid.toString()}));
+        assertEquals(1, BatchMain.run(new String[]{"-o", directory.resolve("out").toString(), invalid.toString()}));
+        assertEquals(2, BatchMain.run(new String[0]));
+        assertEquals(2, BatchMain.run(new String[]{"-j", "many", valid.toString()}));
+        assertEquals(2, BatchMain.run(new String[]{"-j", "0", valid.toString()}));
+        assertEquals(2, BatchMain.run(new String[]{"--watch", "--debounce", "-1", valid.toString()}));
+        assertEquals(2, BatchMain.run(new String[]{valid.toString(), invalid.toString()}));
+    }
+}
@@ -0,0 +1,152 @@
+package nl.han.ica.icss.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildCacheTest {
+    private static final long MAX_BYTES = 250;
+
+    private static ByteBuffer source(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Path entry(Path cache, String key) {
+        return cache.resolve(key.substring(0, 2)).resolve(key + ".css");
+    }
+
+    private static Path css(Path directory, String name, int bytes) throws IOException {
+        return Files.writeString(directory.resolve(name), "x".repeat(bytes));
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void keysDependOnTheSourceOnly(@TempDir Path directory) throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), MAX_BYTES);
+        BuildCache other = new BuildCache(directory.resolve("other"), MAX_BYTES);
+
+        assertEquals(cache.key(source("p { }")), other.key(source("p { }")));
+        assertNotEquals(cache.key(source("p { }")), cache.key(source("a { }")));
+    }
+
+    @Test
+    void copiesStoredEntriesAndMissesOthers(@TempDir Path directory) throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), MAX_BYTES);
+        String key = cache.key(source("p { width: 1px; }"));
+        Path output = directory.resolve("out").resolve("page.css");
+
+        assertFalse(cache.copyTo(key, output));
+        assertFalse(Files.exists(output));
+
+        cache.store(key, Files.writeString(directory.resolve("page.css"), "p {\n  width: 1px;\n}\n"));
+
+        assertTrue(cache.copyTo(key, output));
+        assertEquals("p {\n  width: 1px;\n}\n", Files.readString(output));
+        assertFalse(cache.copyTo(cache.key(source("p { width: 2px; }")), output));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntriesBeyondTheSizeLimit(@TempDir Path directory) throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        BuildCache cache = new BuildCache(cacheDirectory, MAX_BYTES);
+        String oldest = cache.key(source("a"));
+        String newest = cache.key(source("b"));
+        String older = cache.key(source("c"));
+        cache.store(oldest, css(directory, "a.css", 100));
+        cache.store(newest, css(directory, "b.css", 100));
+        cache.store(older, css(directory, "c.css", 100));
+        Files.setLastModifiedTime(entry(cacheDirectory, oldest), FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(entry(cacheDirectory, newest), FileTime.fromMillis(3_000_000));
+        Files.setLastModifiedTime(entry(cacheDirectory, older), FileTime.fromMillis(2_000_000));
+
+        cache.evict();
+
+        Path output = directory.resolve("out.css");
+        assertFalse(cache.copyTo(oldest, output));
+        assertTrue(cache.copyTo(older, output));
+        assertTrue(cache.copyTo(newest, output));
+    }
+
+    @Test
+    void storesEntriesAtomically(@TempDir Path directory) throws Exception {
+        Path cacheDirectory = directory.resolve("cache");
+        BuildCache cache = new BuildCache(cacheDirectory, MAX_BYTES);
+        String key = cache.key(source("p { }"));
+        Path css = css(directory, "page.css", 200);
+
+        //Concurrent builds storing the same entry
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> stores = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                stores.add(executor.submit(() -> {
+                    cache.store(key, css);
+                    return null;
+                }));
+            }
+            for (Future<?> store : stores) {
+                store.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(List.of(entry(cacheDirectory, key)), files(cacheDirectory));
+        assertEquals(200, Files.size(entry(cacheDirectory, key)));
+    }
+
+    @Test
+    void evictionRemovesTemporaryFilesLeftByCrashedBuildsOnly(@TempDir Path directory) throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        BuildCache cache = new BuildCache(cacheDirectory, MAX_BYTES);
+        String key = cache.key(source("p { }"));
+        cache.store(key, css(directory, "page.css", 10));
+        Path stale = Files.writeString(entry(cacheDirectory, key).resolveSibling("stale.tmp"), "");
+        Path storing = Files.writeString(entry(cacheDirectory, key).resolveSibling("storing.tmp"), "");
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(0));
+
+        cache.evict();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(storing));
+        assertTrue(Files.exists(entry(cacheDirectory, key)));
+    }
+
+    @Test
+    void batchBuildsCopyUnchangedSourcesFromTheCache(@TempDir Path directory) throws IOException {
+        Path sources = directory.resolve("src");
+        Files.createDirectories(sources);
+        Files.writeString(sources.resolve("a.icss"), "a { width: 1px; }");
+        Path changed = Files.writeString(sources.resolve("b.icss"), "b { width: 1px; }");
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 1024 * 1024);
+        BatchCompiler compiler = new BatchCompiler(sources, directory.resolve("out"), 2, cache);
+
+        assertEquals(0, compiler.compile().getCachedCount());
+        Files.writeString(changed, "b { width: 2px; }");
+        BatchResult result = compiler.compile();
+
+        assertTrue(result.getFiles().get(0).isCached());
+        assertFalse(result.getFiles().get(1).isCached());
+        assertEquals("b {\n  width: 2px;\n}\n\n", Files.readString(result.getFiles().get(1).getOutput()));
+    }
+}
@@ -0,0 +1,146 @@
+package nl.han.ica.icss.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchCompilerTest {
+    private static final long DEBOUNCE_MILLIS = 200;
+    private static final long MAX_DELAY_MILLIS = 600;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    private Thread watcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    private String log() {
+        return log.toString(StandardCharsets.UTF_8);
+    }
+
+    private void watch(Path sources, Path output) {
+        watch(new BatchCompiler(sources, output, 1));
+    }
+
+    private void watch(BatchCompiler compiler) {
+        PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8);
+        watcher = new Thread(() -> {
+            try {
+                new WatchCompiler(compiler, DEBOUNCE_MILLIS, MAX_DELAY_MILLIS, out).run();
+            } catch (IOException e) {
+                out.println(e);
+            } catch (InterruptedException e) {
+                //Stopped by the test
+            }
+        });
+        watcher.start();
+        await(() -> log().contains("Watching"), "the watcher to start");
+    }
+
+    private static void await(BooleanSupplier condition, String what) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, () -> "Timed out waiting for " + what);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static long countFiles(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(".css")).count();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void recompilesABurstOfWritesOnce(@TempDir Path directory) throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path css = directory.resolve("out").resolve("page.css");
+        watch(sources, directory.resolve("out"));
+
+        Path source = sources.resolve("page.icss");
+        for (int width = 1; width <= 3; width++) {
+            Files.writeString(source, "p { width: " + width + "px; }");
+        }
+        await(() -> log().contains("page.icss -> "), "the source to be compiled");
+
+        assertEquals("p {\n  width: 3px;\n}\n\n", Files.readString(css));
+        assertEquals(1, count(log(), "page.icss -> "), this::log);
+    }
+
+    @Test
+    void recompilesSourcesThatKeepChangingAfterTheMaximumDelay(@TempDir Path directory) throws IOException, InterruptedException {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path css = directory.resolve("out").resolve("page.css");
+        watch(sources, directory.resolve("out"));
+
+        //Writes closer together than the debounce interval, until the css appears
+        Path source = sources.resolve("page.icss");
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!Files.exists(css)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Not compiled while the source kept changing");
+            Files.writeString(source, "p { width: 1px; }");
+            Thread.sleep(DEBOUNCE_MILLIS / 4);
+        }
+    }
+
+    @Test
+    void removesTheCssOfDeletedSources(@TempDir Path directory) throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path source = Files.writeString(sources.resolve("page.icss"), "p { width: 1px; }");
+        Path css = Files.writeString(directory.resolve("page.css"), "p {\n  width: 1px;\n}\n\n");
+        watch(sources, directory);
+
+        Files.delete(source);
+        await(() -> log().contains("page.icss deleted"), "the css to be removed");
+
+        assertFalse(Files.exists(css));
+    }
+
+    @Test
+    void evictsTheCacheAfterRecompiling(@TempDir Path directory) throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path cacheDirectory = directory.resolve("cache");
+        //Room for one css file of 20 bytes
+        BuildCache cache = new BuildCache(cacheDirectory, 30);
+        watch(new BatchCompiler(sources, directory.resolve("out"), 1, cache));
+
+        Path source = sources.resolve("page.icss");
+        Files.writeString(source, "p { width: 1px; }");
+        await(() -> log().contains("page.icss -> "), "the source to be compiled");
+        Files.writeString(source, "p { width: 2px; }");
+        await(() -> count(log(), "page.icss -> ") == 2, "the source to be compiled again");
+
+        await(() -> countFiles(cacheDirectory) == 1, "the cache to be evicted");
+    }
+}
@@ -0,0 +1,85 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.parser.SourceParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckerTest {
+
+    private static AST check(String source) {
+        AST ast = new SourceParser().parse(CharStreams.fromString(source), new BaseErrorListener());
+        new Checker().check(ast);
+        return ast;
+    }
+
+    private static List<String> errors(String source) {
+        List<String> descriptions = new ArrayList<>();
+        for (SemanticError error : check(source).getErrors()) {
+            descriptions.add(error.description);
+        }
+        return descriptions;
+    }
+
+    @Test
+    void leavesInferredTypesOnTheAst() {
+        AST ast = check("Width := 10px;\np { width: Width + 2 * 3%; }\na { width: 2 * 3; }");
+
+        Operation add = (Operation) ((Declaration) ((Stylerule) ast.root.body.get(1)).body.get(0)).expression;
+        Operation scalars = (Operation) ((Declaration) ((Stylerule) ast.root.body.get(2)).body.get(0)).expression;
+        assertEquals(ExpressionType.UNDEFINED, add.getType());
+        assertEquals(ExpressionType.PIXEL, add.lhs.getType());
+        assertEquals(ExpressionType.PERCENTAGE, add.rhs.getType());
+        assertEquals(ExpressionType.SCALAR, scalars.getType());
+    }
+
+    @Test
+    void reportsTypeErrorsOfNestedOperations() {
+        assertEquals(List.of("Calculating with pixels and percentages is not possible."),
+                errors("p { width: 10px + 2 * 10%; }"));
+        assertEquals(List.of("Multiply operations require at least 1 scalar."),
+                errors("p { width: 10px - 2px * 10px + 3px; }"));
+        assertEquals(List.of("Colors cannot be used in calculations."),
+                errors("Color := #ff0000;\np { width: 2 * 10px + Color; }"));
+    }
+
+    @Test
+    void checksTheTypeOfCalculatedValues() {
+        assertEquals(List.of("Property color does not accept pixels as value."),
+                errors("p { color: 10px + 2 * 5px; }"));
+        assertEquals(List.of("If clauses must use a boolean value as conditional expression."),
+                errors("Width := 10px + 10px;\np { if[Width] { width: Width; } }"));
+    }
+
+    @Test
+    void reportsAnUndefinedVariableOnlyWhereItIsUsed() {
+        assertEquals(List.of("Width is undefined."), errors("p { width: 10px + Width * 2; }"));
+    }
+
+    @Test
+    void checksRepeatedDeclarationsInTheirOwnScope() {
+        AST ast = check("Flag := TRUE;\n"
+                + "p { if[Flag] { Width := 10px; width: Width; } }\n"
+                + "a { width: Width; }");
+
+        Declaration inScope = (Declaration) ((IfClause) ((Stylerule) ast.root.body.get(1)).body.get(0)).body.get(1);
+        Declaration outOfScope = (Declaration) ((Stylerule) ast.root.body.get(2)).body.get(0);
+        assertEquals(inScope, outOfScope);
+        assertFalse(inScope.expression.hasError());
+        assertTrue(outOfScope.expression.hasError());
+        assertEquals(1, ast.getErrors().size());
+    }
+
+    @Test
+    void reportsEveryRepeatedError() {
+        assertEquals(List.of("Property color does not accept pixels as value.", "Property color does not accept pixels as value."),
+                errors("p { color: 10px; }\na { color: 10px; }"));
+    }
+}
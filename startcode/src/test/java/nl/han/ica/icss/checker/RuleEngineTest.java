@@ -0,0 +1,160 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.checker.rules.PropertyTypeRule;
+import nl.han.ica.icss.parser.Fixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEngineTest {
+
+    /**
+     * Records the nodes it is called for.
+     */
+    private static class RecordingRule implements CheckRule {
+        private final Set<NodeKind> kinds;
+        private final List<ASTNode> checked = new ArrayList<>();
+
+        RecordingRule(NodeKind first, NodeKind... rest) {
+            this.kinds = EnumSet.of(first, rest);
+        }
+
+        @Override
+        public Set<NodeKind> getKinds() {
+            return kinds;
+        }
+
+        @Override
+        public void check(ASTNode node, CheckContext context) {
+            checked.add(node);
+        }
+    }
+
+    /**
+     * Lint rule: every stylerule sets a width.
+     */
+    private static class RequireWidthRule implements CheckRule {
+        @Override
+        public Set<NodeKind> getKinds() {
+            return EnumSet.of(NodeKind.STYLERULE);
+        }
+
+        @Override
+        public void check(ASTNode node, CheckContext context) {
+            for (ASTNode child : ((Stylerule) node).body) {
+                if (child instanceof Declaration && ((Declaration) child).property.name.equals("width")) return;
+            }
+            context.report(node, "Stylerules must set a width.");
+        }
+    }
+
+    /**
+     * Lint rule: no widths of 0px.
+     */
+    private static class ZeroPixelsRule implements CheckRule {
+        @Override
+        public Set<NodeKind> getKinds() {
+            return EnumSet.of(NodeKind.PIXEL);
+        }
+
+        @Override
+        public void check(ASTNode node, CheckContext context) {
+            if (((PixelLiteral) node).value == 0) {
+                context.report(node, "Use 0 instead of 0px.");
+            }
+        }
+    }
+
+    @Test
+    void callsRulesOnceForEveryNodeOfTheirKinds() {
+        RecordingRule references = new RecordingRule(NodeKind.VARIABLE_REFERENCE);
+        RecordingRule clauses = new RecordingRule(NodeKind.IF_CLAUSE, NodeKind.ELSE_CLAUSE);
+        AST ast = Fixtures.uncheckedLevel3();
+
+        new Checker(List.of(references, clauses)).check(ast);
+
+        //Uses of variables only, not the names of assignments
+        assertEquals(7, references.checked.size());
+        assertEquals(3, clauses.checked.size());
+        assertTrue(clauses.checked.get(0) instanceof IfClause);
+        assertTrue(clauses.checked.get(1) instanceof IfClause);
+        assertTrue(clauses.checked.get(2) instanceof ElseClause);
+    }
+
+    @Test
+    void checksExpressionsBeforeWhatContainsThem() {
+        RecordingRule rule = new RecordingRule(NodeKind.DECLARATION, NodeKind.ADD, NodeKind.PIXEL);
+        AST ast = Fixtures.uncheckedLevel2();
+
+        new Checker(List.of(rule)).check(ast);
+
+        List<String> labels = new ArrayList<>();
+        for (ASTNode node : rule.checked) {
+            labels.add(node.getNodeLabel());
+        }
+        //#menu { width: ParWidth + 2 * 10px; } comes after three declarations
+        assertEquals(List.of("Pixel literal (500)", "Declaration", "Declaration", "Declaration",
+                "Pixel literal (10)", "Add", "Declaration", "Declaration"), labels);
+    }
+
+    @Test
+    void skipsNodesOfOtherClasses() {
+        RecordingRule rule = new RecordingRule(NodeKind.STYLESHEET, NodeKind.STYLERULE);
+        AST ast = new AST();
+        ast.root.addChild(new ASTNode()).addChild(new Stylerule());
+
+        new Checker(List.of(rule)).check(ast);
+
+        assertEquals(List.of(ast.root, ast.root.body.get(1)), rule.checked);
+    }
+
+    @Test
+    void runsAddedRulesInTheSameTraversal() {
+        List<CheckRule> rules = new ArrayList<>(Checker.defaultRules());
+        rules.add(new RequireWidthRule());
+        AST ast = Fixtures.uncheckedLevel0();
+
+        new Checker(rules).check(ast);
+
+        assertEquals(2, ast.getErrors().size());
+        assertEquals("Stylerules must set a width.", ast.getErrors().get(0).description);
+    }
+
+    @Test
+    void reportsErrorsOfSharedLiteralsWithoutSettingThem() {
+        AST ast = new AST();
+        ast.root.addChild(new Stylerule()
+                .addChild(new Declaration("width").addChild(PixelLiteral.of(0)))
+                .addChild(new Declaration("height").addChild(PixelLiteral.of(0))));
+
+        new Checker(List.of(new ZeroPixelsRule())).check(ast);
+
+        assertEquals(2, ast.getErrors().size());
+        assertEquals("Use 0 instead of 0px.", ast.getErrors().get(1).description);
+        assertFalse(PixelLiteral.of(0).hasError());
+    }
+
+    @Test
+    void measuresTheTimeOfEveryRule() {
+        Checker checker = new Checker();
+        checker.setTimed(true);
+
+        checker.check(Fixtures.uncheckedLevel3());
+
+        Map<CheckRule, Long> nanos = checker.getRuleNanos();
+        assertEquals(Checker.defaultRules().size(), nanos.size());
+        for (Map.Entry<CheckRule, Long> entry : nanos.entrySet()) {
+            if (entry.getKey() instanceof PropertyTypeRule) {
+                assertTrue(entry.getValue() > 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package nl.han.ica.icss.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompilerMetricsTest {
+
+    @Test
+    void countsTheBytesOfTextEncodedAsUtf8() {
+        String[] texts = {"", "p {\n  width: 10px;\n}\n", "café", "€10", "😀 x", "lone \ud83d", "\ude00 lone"};
+
+        for (String text : texts) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, CompilerMetrics.utf8Length(text), text);
+        }
+    }
+}
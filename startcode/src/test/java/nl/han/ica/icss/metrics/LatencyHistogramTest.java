@@ -0,0 +1,78 @@
+package nl.han.ica.icss.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private LatencyHistogram sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new LatencyHistogram();
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, sut.getCount());
+        assertEquals(0, sut.getPercentile(50));
+        assertEquals(0, sut.getMax());
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        for (long value = 1; value <= 10_000; value++) {
+            sut.record(value * 1000);
+        }
+
+        assertEquals(10_000, sut.getCount());
+        assertEquals(10_000_000, sut.getMax());
+        assertEquals(5_000_000, sut.getPercentile(50), 5_000_000 * 0.125);
+        assertEquals(9_900_000, sut.getPercentile(99), 9_900_000 * 0.125);
+        assertTrue(sut.getPercentile(99) >= 9_900_000);
+        assertEquals(5_000_500, sut.getMean(), 0.001);
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value, Long.toString(value));
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBound(index - 1) < value, Long.toString(value));
+            }
+        }
+    }
+
+    @Test
+    void recordFromManyThreadsCountsEveryValue() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            long offset = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    sut.record(j + offset);
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(80_000, sut.getCount());
+        assertEquals(10_006, sut.getMax());
+    }
+
+    @Test
+    void resetClearsAllValues() {
+        sut.record(42);
+        sut.reset();
+
+        assertEquals(0, sut.getCount());
+        assertEquals(0, sut.getMax());
+    }
+}
@@ -0,0 +1,138 @@
+package nl.han.ica.icss.parallel;
+
+import nl.han.ica.icss.CompileError;
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.NodeKind;
+import nl.han.ica.icss.checker.CheckContext;
+import nl.han.ica.icss.checker.CheckRule;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.parser.SourceParser;
+import nl.han.ica.icss.workload.WorkloadGenerator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleParallelismTest {
+    private static final int THRESHOLD = 8;
+    private static final int RULES = 200;
+
+    private ForkJoinPool pool;
+    private CompilerService sequential;
+    private CompilerService parallel;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        sequential = new CompilerService();
+        parallel = new CompilerService(pool, new RuleParallelism(pool, THRESHOLD));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private static List<String> errors(CompileResult result) {
+        List<String> descriptions = new ArrayList<>();
+        for (CompileError error : result.getErrors()) {
+            descriptions.add(error.toString());
+        }
+        return descriptions;
+    }
+
+    @Test
+    void splitsOnlyFromTwiceTheThreshold() {
+        RuleParallelism parallelism = new RuleParallelism(pool, 10);
+
+        assertArrayEquals(new int[]{0, 19}, parallelism.split(19));
+        assertArrayEquals(new int[]{0, 10, 20}, parallelism.split(20));
+        assertArrayEquals(new int[]{0, 11, 22, 33, 45}, parallelism.split(45));
+        assertArrayEquals(new int[]{0, 1000}, RuleParallelism.SEQUENTIAL.split(1000));
+    }
+
+    @Test
+    void compilesGeneratedStylesheetsLikeTheSequentialCompiler() {
+        String source = new WorkloadGenerator(7).rules(RULES).localVariables(2).ifDepth(3).generateSource();
+
+        CompileResult expected = sequential.compile(source);
+        CompileResult result = parallel.compile(source);
+
+        assertTrue(result.isSucceeded(), () -> errors(result).toString());
+        assertEquals(expected.getCss(), result.getCss());
+    }
+
+    @Test
+    void startsEveryRangeWithTheGlobalsAssignedBeforeIt() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < RULES; i++) {
+            source.append("Width := ").append(i).append("px;\n");
+            source.append("p").append(i).append(" { Height := Width; width: Width + 1px; height: Height; }\n");
+        }
+
+        CompileResult result = parallel.compile(source.toString());
+
+        assertEquals(sequential.compile(source.toString()).getCss(), result.getCss());
+        assertTrue(result.getCss().contains("p150 {\n  width: 151px;\n  height: 150px;\n}"));
+    }
+
+    @Test
+    void reportsErrorsInSourceOrder() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < RULES; i++) {
+            source.append("Width := ").append(i % 2 == 0 ? "10px" : "10px + 10%").append(";\n");
+            source.append("p").append(i).append(" { color: Width; width: Height").append(i).append("; }\n");
+        }
+
+        List<String> expected = errors(sequential.compile(source.toString()));
+        List<String> result = errors(parallel.compile(source.toString()));
+
+        //One error in every rule, and one in every rule or in the global before it
+        assertEquals(2 * RULES, result.size());
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void checksEveryAssignmentOnce() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < RULES; i++) {
+            source.append("Width := ").append(i).append("px;\n");
+            source.append("p").append(i).append(" { Height := Width; height: Height; }\n");
+        }
+        AST ast = new SourceParser().parse(CharStreams.fromString(source.toString()), new BaseErrorListener());
+        List<ASTNode> checked = Collections.synchronizedList(new ArrayList<>());
+        Checker checker = new Checker(List.of(new CheckRule() {
+            @Override
+            public Set<NodeKind> getKinds() {
+                return EnumSet.of(NodeKind.VARIABLE_ASSIGNMENT);
+            }
+
+            @Override
+            public void check(ASTNode node, CheckContext context) {
+                checked.add(node);
+            }
+        }));
+        checker.setParallelism(new RuleParallelism(pool, THRESHOLD));
+
+        checker.check(ast);
+
+        Set<ASTNode> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(checked);
+        assertEquals(2 * RULES, checked.size());
+        assertEquals(2 * RULES, distinct.size());
+    }
+}
@@ -1,6 +1,11 @@
 package nl.han.ica.icss.parser;
 
-import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
 import nl.han.ica.icss.gen.ICSSLexer;
 import nl.han.ica.icss.gen.ICSSParser;
 import org.antlr.v4.runtime.*;
@@ -23,7 +28,10 @@ class ParserTest {
 		ClassLoader classLoader = this.getClass().getClassLoader();
 
     	InputStream inputStream = classLoader.getResourceAsStream(resource);
-        CharStream charStream = CharStreams.fromStream(inputStream);
+        return parse(CharStreams.fromStream(inputStream));
+	}
+
+	AST parse(CharStream charStream) {
         ICSSLexer lexer = new ICSSLexer(charStream);
 
 	    CommonTokenStream tokens = new CommonTokenStream(lexer);
@@ -85,4 +93,40 @@ class ParserTest {
 		AST exp = Fixtures.uncheckedLevel3();
 		assertEquals(exp,sut);
 	}
+	@Test
+	void testMultiplyTakesPrecedence() {
+
+		AST sut = parse(CharStreams.fromString("Width := 1px + 2px * 3 - 4px;"));
+		Stylesheet exp = new Stylesheet();
+		exp.addChild((new VariableAssignment())
+				.addChild(new VariableReference("Width"))
+				.addChild((new SubtractOperation())
+						.addChild((new AddOperation())
+								.addChild(new PixelLiteral("1px"))
+								.addChild((new MultiplyOperation())
+										.addChild(new PixelLiteral("2px"))
+										.addChild(new ScalarLiteral("3"))))
+						.addChild(new PixelLiteral("4px")))
+		);
+		assertEquals(exp.toString(), sut.root.toString());
+	}
+	@Test
+	void testLongCalculationIsLeftAssociative() {
+
+		int terms = 10_000;
+		StringBuilder source = new StringBuilder("Width := 1px");
+		for (int i = 1; i < terms; i++) {
+			source.append(i % 2 == 0 ? " + " : " - ").append(i).append("px");
+		}
+		AST sut = parse(CharStreams.fromString(source.append(';').toString()));
+
+		Expression expression = ((VariableAssignment) sut.root.body.get(0)).expression;
+		for (int i = terms - 1; i > 0; i--) {
+			Operation operation = (Operation) expression;
+			assertEquals(i % 2 == 0 ? AddOperation.class : SubtractOperation.class, operation.getClass());
+			assertEquals(i, ((PixelLiteral) operation.rhs).value);
+			expression = operation.lhs;
+		}
+		assertEquals(1, ((PixelLiteral) expression).value);
+	}
 }
@@ -0,0 +1,74 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceParserTest {
+
+    private final List<String> errors = new ArrayList<>();
+
+    private final BaseErrorListener errorListener = new BaseErrorListener() {
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            errors.add(line + ":" + charPositionInLine + " " + msg);
+        }
+    };
+
+    AST parseTestFile(SourceParser parser, String resource) throws IOException {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+            return parser.parse(CharStreams.fromStream(inputStream), errorListener);
+        }
+    }
+
+    @Test
+    void buildsSameAstWithoutParseTreeAsParseTreeWalk() throws IOException {
+        SourceParser parser = new SourceParser();
+
+        assertEquals(Fixtures.uncheckedLevel0(), parseTestFile(parser, "level0.icss"));
+        assertEquals(Fixtures.uncheckedLevel1(), parseTestFile(parser, "level1.icss"));
+        assertEquals(Fixtures.uncheckedLevel2(), parseTestFile(parser, "level2.icss"));
+        assertEquals(Fixtures.uncheckedLevel3(), parseTestFile(parser, "level3.icss"));
+        assertTrue(errors.isEmpty(), errors.toString());
+    }
+
+    @Test
+    void validStylesheetsTakeTheSllPath() throws IOException {
+        long fallbacks = SourceParser.getFallbackCount();
+
+        for (int level = 0; level <= 3; level++) {
+            AST sll = parseTestFile(new SourceParser(), "level" + level + ".icss");
+            AST ll = parseTestFile(new SourceParser(false), "level" + level + ".icss");
+            assertEquals(ll.toString(), sll.toString());
+        }
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals(fallbacks, SourceParser.getFallbackCount());
+    }
+
+    @Test
+    void syntaxErrorsFallBackToLlAndAreReportedOnce() {
+        String source = "p {\n  width 10px;\n}";
+        long fallbacks = SourceParser.getFallbackCount();
+
+        new SourceParser().parse(CharStreams.fromString(source), errorListener);
+        List<String> sllFirstErrors = new ArrayList<>(errors);
+        errors.clear();
+        new SourceParser(false).parse(CharStreams.fromString(source), errorListener);
+
+        assertEquals(fallbacks + 1, SourceParser.getFallbackCount());
+        assertFalse(sllFirstErrors.isEmpty());
+        assertEquals(errors, sllFirstErrors);
+    }
+}
@@ -0,0 +1,55 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceStreamsTest {
+    private static final String SOURCE = "p { width: 10px; }";
+
+    @Test
+    void readsFileChannelsFromTheirPositionToTheEnd(@TempDir Path directory) throws IOException {
+        Path path = Files.writeString(directory.resolve("source.icss"), "a { }\n" + SOURCE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(6);
+
+            CharStream stream = SourceStreams.fromChannel(channel);
+
+            assertEquals(SOURCE, stream.toString());
+            assertEquals(channel.size(), channel.position());
+            assertEquals(0, SourceStreams.fromChannel(channel).size());
+        }
+    }
+
+    @Test
+    void readsOtherChannelsToTheEnd() throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(SOURCE.getBytes()));
+
+        assertEquals(SOURCE, SourceStreams.fromChannel(channel).toString());
+        assertEquals(0, SourceStreams.fromChannel(channel).size());
+    }
+
+    @Test
+    void seekStaysWithinTheStream() {
+        CharStream stream = new ByteBufferCharStream(ByteBuffer.wrap(SOURCE.getBytes()), "source");
+
+        stream.seek(SOURCE.length() + 10);
+        assertEquals(SOURCE.length(), stream.index());
+        assertEquals(CharStream.EOF, stream.LA(1));
+        stream.seek(-5);
+        assertEquals(0, stream.index());
+        assertEquals('p', stream.LA(1));
+    }
+}
@@ -0,0 +1,78 @@
+package nl.han.ica.icss.scope;
+
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.parser.Fixtures;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopeResolverTest {
+
+    private static void assertAddress(int depth, int slot, Expression expression) {
+        VariableReference reference = (VariableReference) expression;
+        assertEquals(depth, reference.depth, reference.name);
+        assertEquals(slot, reference.slot, reference.name);
+    }
+
+    @Test
+    void resolvesReferencesToScopesAndSlots() {
+        AST ast = Fixtures.uncheckedLevel3();
+        new ScopeResolver().resolve(ast.root);
+
+        Stylerule p = (Stylerule) ast.root.body.get(4);
+        IfClause adjustColor = (IfClause) p.body.get(2);
+        IfClause useLinkColor = (IfClause) adjustColor.body.get(1);
+        assertAddress(0, 1, ((VariableAssignment) ast.root.body.get(1)).name);
+        assertAddress(1, 1, ((Declaration) p.body.get(1)).expression);
+        assertAddress(1, 2, adjustColor.conditionalExpression);
+        assertAddress(2, 3, useLinkColor.conditionalExpression);
+        assertAddress(3, 0, ((Declaration) useLinkColor.body.get(0)).expression);
+    }
+
+    @Test
+    void referencesBeforeAnAssignmentAreUnresolved() {
+        VariableReference beforeAssignment = new VariableReference("Width");
+        VariableReference inAssignment = new VariableReference("Width");
+        Stylesheet stylesheet = new Stylesheet();
+        stylesheet.addChild(new Stylerule().addChild(new Declaration("width").addChild(beforeAssignment)));
+        stylesheet.addChild(new VariableAssignment().addChild(new VariableReference("Width")).addChild(inAssignment));
+
+        new ScopeResolver().resolve(stylesheet);
+
+        assertFalse(beforeAssignment.isResolved());
+        assertFalse(inAssignment.isResolved());
+    }
+
+    @Test
+    void ruleVariablesShadowGlobalsOnlyInTheirRule() {
+        CompileResult result = new CompilerService().compile(
+                "Width := 10px;\n"
+                        + "p { Width := 20px; width: Width; }\n"
+                        + "a { width: Width; }");
+
+        assertTrue(result.isSucceeded(), () -> result.getErrors().toString());
+        assertEquals("p {\n  width: 20px;\n}\n\na {\n  width: 10px;\n}\n\n", result.getCss());
+    }
+
+    @Test
+    void ruleVariablesCanBeUsedInNestedCalculations() {
+        CompileResult result = new CompilerService().compile(
+                "p { Width := 10px; width: Width + 2px * 3 + Width; }");
+
+        assertTrue(result.isSucceeded(), () -> result.getErrors().toString());
+        assertEquals("p {\n  width: 26px;\n}\n\n", result.getCss());
+    }
+
+    @Test
+    void ifClauseVariablesAreNotVisibleAfterTheClause() {
+        CompileResult result = new CompilerService().compile(
+                "Flag := TRUE;\n"
+                        + "p { if[Flag] { Width := 10px; width: Width; } height: Width; }");
+
+        assertFalse(result.isSucceeded());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).toString().contains("Width is undefined."));
+    }
+}
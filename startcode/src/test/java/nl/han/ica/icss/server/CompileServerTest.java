@@ -0,0 +1,77 @@
+package nl.han.ica.icss.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileServerTest {
+    private CompileServer sut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sut = new CompileServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        sut.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.stop();
+    }
+
+    HttpURLConnection post(String body, String ifNoneMatch) throws IOException {
+        URL url = new URL("http", sut.getAddress().getHostString(), sut.getAddress().getPort(), CompileServer.COMPILE_PATH);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void postCompilesIcss() throws IOException {
+        HttpURLConnection connection = post("a { color: #ff0000; }", null);
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("a {\n  color: #ff0000;\n}\n\n", read(connection.getInputStream()));
+        assertNotNull(connection.getHeaderField("ETag"));
+    }
+
+    @Test
+    void matchingEtagGivesNotModified() throws IOException {
+        String etag = post("a { color: #ff0000; }", null).getHeaderField("ETag");
+
+        HttpURLConnection connection = post("a { color: #ff0000; }", etag);
+
+        assertEquals(304, connection.getResponseCode());
+    }
+
+    @Test
+    void semanticErrorsGiveUnprocessableEntity() throws IOException {
+        HttpURLConnection connection = post("a { color: 10px; }", null);
+
+        assertEquals(422, connection.getResponseCode());
+        assertTrue(read(connection.getErrorStream()).startsWith("ERROR:"));
+    }
+}
@@ -0,0 +1,78 @@
+package nl.han.ica.icss.transforms;
+
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.SourceParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluatorTest {
+    private static final int VARIABLES = 50_000;
+
+    private static AST parse(String source) {
+        return new SourceParser().parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    private static AST evaluate(String source) {
+        AST ast = parse(source);
+        new Checker().check(ast);
+        assertTrue(ast.getErrors().isEmpty(), () -> ast.getErrors().toString());
+        new Evaluator().apply(ast);
+        return ast;
+    }
+
+    @Test
+    void prunesAssignmentsAndIfClausesKeepingTheOrderOfTheRest() {
+        AST ast = evaluate("Flag := TRUE;\n"
+                + "p { Width := 10px; width: Width; if[Flag] { Height := 5px; height: Height; } else { height: 1px; } }\n"
+                + "Flag := FALSE;\n"
+                + "a { if[Flag] { width: 1px; } else { Width := 2px; width: Width; } color: #ff0000; }");
+
+        assertEquals(2, ast.root.body.size());
+        Stylerule p = (Stylerule) ast.root.body.get(0);
+        Stylerule a = (Stylerule) ast.root.body.get(1);
+        assertEquals("width", ((Declaration) p.body.get(0)).property.name);
+        assertEquals("height", ((Declaration) p.body.get(1)).property.name);
+        assertEquals(2, p.body.size());
+        assertEquals("width", ((Declaration) a.body.get(0)).property.name);
+        assertEquals("color", ((Declaration) a.body.get(1)).property.name);
+        assertEquals(2, a.body.size());
+    }
+
+    @Test
+    void prunesManyEqualAssignments() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < VARIABLES; i++) {
+            source.append("Width := 10px;\n");
+        }
+        AST ast = evaluate(source.append("p { width: Width; }").toString());
+
+        assertEquals(1, ast.root.body.size());
+        assertTrue(ast.root.body.get(0) instanceof Stylerule);
+    }
+
+    @Test
+    void calculationsWrapAroundOnOverflow() {
+        AST ast = evaluate("p { width: 2147483647px + 1px; height: 0px - 2147483647px - 2px; }");
+
+        Stylerule p = (Stylerule) ast.root.body.get(0);
+        assertEquals(Integer.MIN_VALUE, ((PixelLiteral) ((Declaration) p.body.get(0)).expression).value);
+        assertEquals(Integer.MAX_VALUE, ((PixelLiteral) ((Declaration) p.body.get(1)).expression).value);
+    }
+
+    @Test
+    void calculatesOperationsOfUncheckedAstsByTheTypesOfTheirOperands() {
+        AST ast = parse("p { width: 2 * 10px + 1px; height: 50% - 2 * 10%; z-index: 2 * 3; }");
+
+        new Evaluator().apply(ast);
+
+        assertEquals("p {\n  width: 21px;\n  height: 30%;\n  z-index: 6;\n}\n\n", new Generator().generate(ast));
+        AST variables = parse("Width := 10px;\np { width: Width; }");
+        assertThrows(IllegalStateException.class, () -> new Evaluator().apply(variables));
+    }
+}
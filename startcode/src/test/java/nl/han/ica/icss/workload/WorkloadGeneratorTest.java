@@ -0,0 +1,89 @@
+package nl.han.ica.icss.workload;
+
+import nl.han.ica.icss.CompileResult;
+import nl.han.ica.icss.CompilerService;
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadGeneratorTest {
+
+    @Test
+    void sameSeedGivesSameStylesheet() {
+        WorkloadGenerator first = new WorkloadGenerator(42).rules(50);
+        WorkloadGenerator second = new WorkloadGenerator(42).rules(50);
+
+        assertEquals(first.generateSource(), second.generateSource());
+        assertEquals(first.generateAst().toString(), second.generateAst().toString());
+    }
+
+    @Test
+    void differentSeedsGiveDifferentStylesheets() {
+        assertNotEquals(new WorkloadGenerator(1).generateSource(), new WorkloadGenerator(2).generateSource());
+    }
+
+    @Test
+    void generatedAstPassesCheckerAndCompiles() {
+        for (long seed = 0; seed < 20; seed++) {
+            AST ast = new WorkloadGenerator(seed)
+                    .rules(20)
+                    .localVariables(4)
+                    .ifDepth(3)
+                    .calculationLength(5)
+                    .generateAst();
+
+            new Checker().check(ast);
+            assertEquals(0, ast.getErrors().size(), "seed " + seed + ": " + ast.getErrors());
+            new Evaluator().apply(ast);
+            assertFalse(new Generator().generate(ast).isEmpty());
+        }
+    }
+
+    @Test
+    void generatedSourceCompiles() {
+        CompilerService compiler = new CompilerService();
+        for (long seed = 0; seed < 20; seed++) {
+            String source = new WorkloadGenerator(seed)
+                    .rules(20)
+                    .globalVariables(12)
+                    .localVariables(4)
+                    .ifDepth(3)
+                    .calculationLength(5)
+                    .generateSource();
+
+            CompileResult result = compiler.compile(source);
+            assertTrue(result.isSucceeded(), "seed " + seed + ": " + result.getErrors() + "\n" + source);
+        }
+    }
+
+    @Test
+    void parsedSourceEqualsGeneratedAst() {
+        WorkloadGenerator generator = new WorkloadGenerator(11).rules(20).localVariables(4).ifDepth(3).calculationLength(6);
+        Pipeline pipeline = new Pipeline();
+
+        pipeline.parseString(generator.generateSource());
+
+        assertEquals(generator.generateAst().toString(), pipeline.getAST().toString());
+    }
+
+    @Test
+    void settingsScaleTheStylesheet() {
+        String source = new WorkloadGenerator(7)
+                .rules(10)
+                .declarationsPerRule(3)
+                .globalVariables(0)
+                .localVariables(0)
+                .ifDepth(0)
+                .calculationLength(1)
+                .generateSource();
+
+        assertEquals(10, source.split("\\{").length - 1);
+        assertEquals(30, source.split(";").length - 1);
+        assertFalse(source.contains(":="));
+    }
+}